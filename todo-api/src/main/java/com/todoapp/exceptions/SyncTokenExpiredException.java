@@ -0,0 +1,7 @@
+package com.todoapp.exceptions;
+
+public class SyncTokenExpiredException extends RuntimeException {
+    public SyncTokenExpiredException() {
+        super("Sync token expired; sync again without a token");
+    }
+}
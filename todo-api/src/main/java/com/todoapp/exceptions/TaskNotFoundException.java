@@ -0,0 +1,7 @@
+package com.todoapp.exceptions;
+
+public class TaskNotFoundException extends RuntimeException {
+    public TaskNotFoundException(String taskId) {
+        super("Task not found: " + taskId);
+    }
+}
@@ -3,22 +3,68 @@ package com.todoapp.handlers;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.CognitoUserPoolPostAuthenticationEvent;
-import com.todoapp.services.NotificationService;
+import com.todoapp.metrics.Metrics;
+import com.todoapp.metrics.Unit;
+import com.todoapp.models.SubscriptionMessage;
+import com.todoapp.services.AwsClients;
+import com.todoapp.utils.JsonUtil;
+import com.todoapp.utils.LruCache;
+import software.amazon.awssdk.services.sqs.SqsClient;
 
+import java.time.Clock;
+import java.util.Map;
+
+/**
+ * Post-authentication trigger. Cognito fails the login if the trigger takes over 5 seconds, so a user
+ * who still needs a notification subscription only gets a message on the subscription queue;
+ * {@link SubscriptionHandler} subscribes them and sets {@link #SUBSCRIBED_EMAIL_ATTRIBUTE}.
+ */
 public class AuthHandler implements RequestHandler<CognitoUserPoolPostAuthenticationEvent, CognitoUserPoolPostAuthenticationEvent> {
-    private final NotificationService notificationService;
+    // Email address the user's SNS subscription was created for; written only after Subscribe succeeded
+    static final String SUBSCRIBED_EMAIL_ATTRIBUTE = "custom:sns_email";
+    private static final long RECENT_SUBSCRIPTIONS_MAX = 10_000;
+    private static final long RECENT_SUBSCRIPTIONS_TTL_MILLIS = 60 * 60 * 1000;
+
+    private final SqsClient sqsClient;
+    private final String queueUrl;
+    // Subscriptions queued by this container, covering logins that arrive before the attribute is set
+    private final LruCache<String, Boolean> recentSubscriptions;
 
     public AuthHandler() {
-        String topicArn = System.getenv("SNS_TOPIC_ARN");
-        this.notificationService = new NotificationService(topicArn);
+        this(AwsClients.sqs(), System.getenv("SUBSCRIPTION_QUEUE_URL"), Clock.systemUTC());
+    }
+
+    public AuthHandler(SqsClient sqsClient, String queueUrl, Clock clock) {
+        this.sqsClient = sqsClient;
+        this.queueUrl = queueUrl;
+        this.recentSubscriptions = new LruCache<>(RECENT_SUBSCRIPTIONS_MAX, RECENT_SUBSCRIPTIONS_TTL_MILLIS,
+                subscribed -> 1, clock);
     }
 
     @Override
     public CognitoUserPoolPostAuthenticationEvent handleRequest(CognitoUserPoolPostAuthenticationEvent event, Context context) {
+        return Metrics.record("postAuthentication", context, () -> handle(event, context));
+    }
+
+    private CognitoUserPoolPostAuthenticationEvent handle(CognitoUserPoolPostAuthenticationEvent event, Context context) {
         try {
             if ("PostAuthentication_Authentication".equals(event.getTriggerSource())) {
-                String userEmail = event.getRequest().getUserAttributes().get("email");
-                notificationService.subscribeUser(userEmail);
+                Map<String, String> attributes = event.getRequest().getUserAttributes();
+                String userEmail = attributes.get("email");
+                // Already subscribed for this address: nothing to do, not even a cache lookup
+                if (userEmail == null || userEmail.equals(attributes.get(SUBSCRIBED_EMAIL_ATTRIBUTE))) {
+                    return event;
+                }
+                String key = event.getUserName() + "\n" + userEmail;
+                if (recentSubscriptions.get(key) != null) {
+                    return event;
+                }
+
+                // Cached only once the message is accepted; if the send fails the next login sends it again
+                String body = JsonUtil.toJson(new SubscriptionMessage(event.getUserPoolId(), event.getUserName(), userEmail));
+                sqsClient.sendMessage(r -> r.queueUrl(queueUrl).messageBody(body));
+                recentSubscriptions.put(key, Boolean.TRUE);
+                Metrics.add("SubscriptionsQueued", Unit.COUNT, 1);
             }
         } catch (Exception e) {
             context.getLogger().log("Error in post authentication: " + e.getMessage());
@@ -3,156 +3,275 @@ package com.todoapp.handlers;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.DynamodbEvent;
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse;
 import com.amazonaws.services.lambda.runtime.events.SQSEvent;
-import com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue;
+import com.amazonaws.services.lambda.runtime.events.ScheduledEvent;
+import com.amazonaws.services.lambda.runtime.events.StreamsEventResponse;
+import com.todoapp.metrics.Metrics;
+import com.todoapp.metrics.Unit;
+import com.todoapp.resilience.Deadline;
+import com.todoapp.services.ExpiryScheduler;
 import com.todoapp.services.TaskService;
 import com.todoapp.services.NotificationService;
+import com.todoapp.models.ExpiryMessage;
 import com.todoapp.models.Task;
+import com.todoapp.utils.JsonUtil;
+import com.todoapp.utils.StreamImage;
+import com.todoapp.utils.WorkerPool;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import software.amazon.awssdk.services.sqs.SqsClient;
-import software.amazon.awssdk.services.sqs.model.SendMessageRequest;
-import software.amazon.awssdk.regions.Region;
 
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 public class ExpiryHandler {
+    private static final int DEFAULT_SWEEP_LOOKBACK_MINUTES = 15;
+    private static final int MAX_SWEEP_BUCKETS = 240;
+
     private final TaskService taskService;
     private final NotificationService notificationService;
     private final ObjectMapper objectMapper;
-    private final String queueUrl;
+    private final ExpiryScheduler expiryScheduler;
+    private final boolean sweeperMode;
+    private final int sweepLookbackMinutes;
+    private final Clock clock;
 
     public ExpiryHandler() {
-        this.taskService = new TaskService();
-        this.notificationService = new NotificationService(System.getenv("SNS_TOPIC_ARN"));
-        this.objectMapper = new ObjectMapper();
-        this.queueUrl = System.getenv("SQS_QUEUE_URL");
+        this(new TaskService(),
+                new NotificationService(System.getenv("SNS_TOPIC_ARN")),
+                new ExpiryScheduler(System.getenv("SQS_QUEUE_URL")),
+                // In sweeper mode deadlines are found through DeadlineBucketIndex instead of per-task SQS messages
+                "sweeper".equals(System.getenv("EXPIRY_MODE")),
+                envInt("SWEEP_LOOKBACK_MINUTES", DEFAULT_SWEEP_LOOKBACK_MINUTES),
+                Clock.systemUTC());
+    }
+
+    public ExpiryHandler(TaskService taskService, NotificationService notificationService,
+                         ExpiryScheduler expiryScheduler, boolean sweeperMode, int sweepLookbackMinutes, Clock clock) {
+        this.taskService = taskService;
+        this.notificationService = notificationService;
+        this.objectMapper = JsonUtil.mapper();
+        this.expiryScheduler = expiryScheduler;
+        this.sweeperMode = sweeperMode;
+        this.sweepLookbackMinutes = sweepLookbackMinutes;
+        this.clock = clock;
+    }
+
+    private static int envInt(String name, int defaultValue) {
+        String value = System.getenv(name);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+
+    public StreamsEventResponse processStream(DynamodbEvent event, Context context) {
+        return Metrics.record("processStream", context, () -> {
+            Metrics.add("Records", Unit.COUNT, event.getRecords().size());
+            StreamsEventResponse response = Deadline.within(context, () -> handleStream(event, context));
+            Metrics.add("Failures", Unit.COUNT, response.getBatchItemFailures().size());
+            return response;
+        });
     }
 
-    public Void processStream(DynamodbEvent event, Context context) {
+    private StreamsEventResponse handleStream(DynamodbEvent event, Context context) {
+        List<StreamsEventResponse.BatchItemFailure> failures = new ArrayList<>();
+        Map<String, Task> toSchedule = new LinkedHashMap<>();
+
         for (DynamodbEvent.DynamodbStreamRecord record : event.getRecords()) {
-            if (record.getEventName().equals("INSERT")) {
+            String sequenceNumber = record.getDynamodb().getSequenceNumber();
+            try {
                 // New task created - schedule expiry check
-                Task newTask = convertToTask(record.getDynamodb().getNewImage());
-                if ("Pending".equals(newTask.getStatus())) {
-                    scheduleExpiryCheck(newTask);
-                }
-            } else if (record.getEventName().equals("MODIFY")) {
-                // Task updated - check if status changed from Pending
-                Task oldTask = convertToTask(record.getDynamodb().getOldImage());
-                Task newTask = convertToTask(record.getDynamodb().getNewImage());
-
-                if ("Pending".equals(oldTask.getStatus()) &&
-                        !"Pending".equals(newTask.getStatus())) {
-                    // Task completed or deleted - cancel expiry
-                    cancelExpiryCheck(oldTask);
+                if (record.getEventName().equals("INSERT")) {
+                    StreamImage created = StreamImage.of(record.getDynamodb().getNewImage());
+                    if (!sweeperMode && created.hasString("status", "Pending")) {
+                        toSchedule.put(sequenceNumber, expiryCandidate(created));
+                    }
                 }
+            } catch (Exception e) {
+                context.getLogger().log("Error processing stream record " + sequenceNumber + ": " + e.getMessage());
+                failures.add(new StreamsEventResponse.BatchItemFailure(sequenceNumber));
             }
         }
-        return null;
+
+        // Only the records whose message could not be sent are retried by the event source mapping
+        Metrics.add("Scheduled", Unit.COUNT, toSchedule.size());
+        for (String sequenceNumber : expiryScheduler.schedule(toSchedule)) {
+            context.getLogger().log("Failed to schedule expiry check for stream record " + sequenceNumber);
+            failures.add(new StreamsEventResponse.BatchItemFailure(sequenceNumber));
+        }
+
+        return new StreamsEventResponse(failures);
+    }
+
+    public SQSBatchResponse handleExpiry(SQSEvent event, Context context) {
+        return Metrics.record("handleExpiry", context, () -> {
+            Metrics.add("Records", Unit.COUNT, event.getRecords().size());
+            SQSBatchResponse response = Deadline.within(context, () -> expireMessages(event, context));
+            Metrics.add("Failures", Unit.COUNT, response.getBatchItemFailures().size());
+            return response;
+        });
     }
 
-    public Void handleExpiry(SQSEvent event, Context context) {
+    private SQSBatchResponse expireMessages(SQSEvent event, Context context) {
+        List<SQSBatchResponse.BatchItemFailure> failures = new ArrayList<>();
+        Map<String, List<String>> messageIdsByTask = new LinkedHashMap<>();
+        List<Task> keys = new ArrayList<>();
+        Map<String, ExpiryMessage> notYetDue = new LinkedHashMap<>();
+
         for (SQSEvent.SQSMessage message : event.getRecords()) {
             try {
                 ExpiryMessage expiryMessage = objectMapper.readValue(message.getBody(), ExpiryMessage.class);
-                Task task = taskService.getTask(expiryMessage.getUserId(), expiryMessage.getTaskId());
-
-                if (task != null && "Pending".equals(task.getStatus())) {
-                    // Mark as expired
-                    task.setStatus("Expired");
-                    taskService.updateTask(task);
-
-                    notificationService.sendTaskExpiryNotification(task, expiryMessage.getUserEmail());
+                if (!expiryScheduler.isDue(expiryMessage)) {
+                    // Intermediate hop: push the message further out without reading the task
+                    notYetDue.put(message.getMessageId(), expiryMessage);
+                    continue;
+                }
+                String taskKey = expiryMessage.getUserId() + "/" + expiryMessage.getTaskId();
+                // Duplicate deliveries share one read and one write
+                if (!messageIdsByTask.containsKey(taskKey)) {
+                    Task key = new Task();
+                    key.setUserId(expiryMessage.getUserId());
+                    key.setTaskId(expiryMessage.getTaskId());
+                    keys.add(key);
                 }
+                messageIdsByTask.computeIfAbsent(taskKey, k -> new ArrayList<>()).add(message.getMessageId());
             } catch (Exception e) {
-                context.getLogger().log("Error processing expiry: " + e.getMessage());
+                context.getLogger().log("Error parsing expiry message " + message.getMessageId() + ": " + e.getMessage());
+                failures.add(new SQSBatchResponse.BatchItemFailure(message.getMessageId()));
             }
         }
-        return null;
-    }
 
-    private void scheduleExpiryCheck(Task task) {
+        Metrics.add("Rescheduled", Unit.COUNT, notYetDue.size());
+        for (String messageId : expiryScheduler.reschedule(notYetDue)) {
+            context.getLogger().log("Failed to reschedule expiry message " + messageId);
+            failures.add(new SQSBatchResponse.BatchItemFailure(messageId));
+        }
+
+        if (keys.isEmpty()) {
+            return new SQSBatchResponse(failures);
+        }
+
+        List<Task> pending;
         try {
-            ExpiryMessage message = new ExpiryMessage(task.getUserId(), task.getTaskId(), task.getUserEmail() );
-            String messageBody = objectMapper.writeValueAsString(message);
-
-            SqsClient sqsClient = SqsClient.builder()
-                    .region(Region.EU_CENTRAL_1)
-                    .build();
-
-            SendMessageRequest sendMessageRequest = SendMessageRequest.builder()
-                    .queueUrl(queueUrl)
-                    .messageBody(messageBody)
-                    .messageGroupId(task.getTaskId())
-                    .messageDeduplicationId(task.getTaskId() + "-" + task.getDeadline())
-                    .build();
-
-            // Set delay to match task deadline
-            long delaySeconds = (task.getDeadline() - System.currentTimeMillis()) / 1000;
-            if (delaySeconds > 0 && delaySeconds <= 900) { // Max 15 minutes
-                sendMessageRequest = sendMessageRequest.toBuilder()
-                        .delaySeconds((int) delaySeconds)
-                        .build();
+            pending = taskService.getTasks(keys).stream()
+                    .filter(task -> "Pending".equals(task.getStatus()))
+                    .toList();
+        } catch (Exception e) {
+            context.getLogger().log("Error loading tasks for expiry: " + e.getMessage());
+            messageIdsByTask.values().forEach(ids -> ids.forEach(
+                    id -> failures.add(new SQSBatchResponse.BatchItemFailure(id))));
+            return new SQSBatchResponse(failures);
+        }
+
+        // Messages without a deadline (drained from the legacy FIFO queue) arrive undelayed, and a
+        // deadline may have been moved out since the message was sent: such tasks get a new hop
+        // carrying the task's own deadline instead of expiring early
+        Map<String, Task> early = new LinkedHashMap<>();
+        List<Task> due = new ArrayList<>();
+        for (Task task : pending) {
+            if (task.getDeadline() != null && !expiryScheduler.isDue(task.getDeadline())) {
+                early.put(task.getUserId() + "/" + task.getTaskId(), task);
+            } else {
+                due.add(task);
             }
+        }
+        Metrics.add("Rescheduled", Unit.COUNT, early.size());
+        Set<String> failedTasks = new HashSet<>(expiryScheduler.schedule(early));
+        failedTasks.addAll(expireAndNotify(due, context));
 
-            sqsClient.sendMessage(sendMessageRequest);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to schedule expiry check", e);
+        for (String taskKey : failedTasks) {
+            messageIdsByTask.get(taskKey).forEach(id -> failures.add(new SQSBatchResponse.BatchItemFailure(id)));
         }
+
+        return new SQSBatchResponse(failures);
     }
 
-    private void cancelExpiryCheck(Task task) {
-        // In FIFO queues, we can't directly cancel messages
-        // The handler will check if task is still pending before processing
-        // This ensures exactly-once processing
+    public Void sweepExpired(ScheduledEvent event, Context context) {
+        return Metrics.record("sweepExpired", context, () -> Deadline.within(context, () -> sweep(context)));
     }
 
-    private Task convertToTask(Map<String, AttributeValue> image) {
-        Task task = new Task();
+    private Void sweep(Context context) {
+        long now = clock.millis();
+        long currentBucket = TaskService.deadlineBucket(now);
+        long fromBucket = taskService.sweepStartBucket(now, sweepLookbackMinutes);
+        // After a long outage the backlog is worked off over several runs
+        long toBucket = Math.min(currentBucket, fromBucket + MAX_SWEEP_BUCKETS - 1);
 
-        if (image.get("userId") != null && image.get("userId").getS() != null) {
-            task.setUserId(image.get("userId").getS());
-        }
-        if (image.get("taskId") != null && image.get("taskId").getS() != null) {
-            task.setTaskId(image.get("taskId").getS());
-        }
-        if (image.get("description") != null && image.get("description").getS() != null) {
-            task.setDescription(image.get("description").getS());
-        }
-        if (image.get("date") != null && image.get("date").getS() != null) {
-            task.setDate(image.get("date").getS());
-        }
-        if (image.get("status") != null && image.get("status").getS() != null) {
-            task.setStatus(image.get("status").getS());
-        }
-        if (image.get("deadline") != null && image.get("deadline").getN() != null) {
-            task.setDeadline(Long.parseLong(image.get("deadline").getN()));
+        List<Task> due = taskService.getDueTasks(now, fromBucket, toBucket);
+        Set<String> failed = expireAndNotify(due, context);
+        Metrics.add("Records", Unit.COUNT, due.size());
+        Metrics.add("Failures", Unit.COUNT, failed.size());
+
+        // Buckets before the current one are complete once all their due tasks expired. Failed tasks
+        // stay in their bucket, and the watermark stops short of it so the next sweep retries them
+        long sweptBucket = Math.min(toBucket, currentBucket - 1);
+        for (Task task : due) {
+            if (failed.contains(task.getUserId() + "/" + task.getTaskId())) {
+                sweptBucket = Math.min(sweptBucket, task.getDeadlineBucket() - 1);
+            }
         }
-        if (image.get("createdAt") != null && image.get("createdAt").getN() != null) {
-            task.setCreatedAt(Long.parseLong(image.get("createdAt").getN()));
+        if (sweptBucket >= fromBucket) {
+            taskService.advanceSweepWatermark(sweptBucket);
         }
 
-        return task;
+        context.getLogger().log("Swept buckets " + fromBucket + ".." + toBucket + ": "
+                + due.size() + " due tasks, " + failed.size() + " failed");
+        return null;
     }
 
-    private static class ExpiryMessage {
-        private String userId;
-        private String taskId;
-        private String userEmail;
+    /**
+     * Expires the given tasks concurrently with conditional writes and notifies their owners.
+     * Returns the "userId/taskId" keys whose write failed.
+     */
+    private Set<String> expireAndNotify(List<Task> tasks, Context context) {
+        Map<String, CompletableFuture<Task>> expirations = new LinkedHashMap<>();
+        for (Task task : tasks) {
+            expirations.put(task.getUserId() + "/" + task.getTaskId(), CompletableFuture.supplyAsync(
+                    () -> taskService.expireTask(task.getUserId(), task.getTaskId()), WorkerPool.executor()));
+        }
 
-        public ExpiryMessage() {}
+        Set<String> failed = new HashSet<>();
+        List<Task> expiredTasks = new ArrayList<>();
+        for (Map.Entry<String, CompletableFuture<Task>> expiration : expirations.entrySet()) {
+            try {
+                Task expired = expiration.getValue().join();
+                // null means the user completed the task first
+                if (expired != null) {
+                    expiredTasks.add(expired);
+                }
+            } catch (Exception e) {
+                context.getLogger().log("Error expiring task " + expiration.getKey() + ": " + e.getMessage());
+                failed.add(expiration.getKey());
+            }
+        }
+        Metrics.add("Expired", Unit.COUNT, expiredTasks.size());
 
-        public ExpiryMessage(String userId, String taskId, String userEmail) {
-            this.userId = userId;
-            this.taskId = taskId;
-            this.userEmail = userEmail;
+        // All expiries of this invocation go out together, so a burst for one user becomes one digest.
+        // A retry would find the tasks already Expired, so a failed notification cannot be
+        // recovered by redelivery; it is logged instead.
+        try {
+            int unsent = notificationService.sendTaskExpiryNotifications(expiredTasks);
+            if (unsent > 0) {
+                context.getLogger().log("Failed to send expiry notifications for " + unsent + " tasks");
+            }
+        } catch (Exception e) {
+            context.getLogger().log("Error sending expiry notifications: " + e.getMessage());
         }
+        return failed;
+    }
 
-        public String getUserId() { return userId; }
-        public void setUserId(String userId) { this.userId = userId; }
-        public String getTaskId() { return taskId; }
-        public void setTaskId(String taskId) { this.taskId = taskId; }
-        public String getUserEmail() { return userEmail; }
-        public void setUserEmail(String userEmail) { this.userEmail = userEmail; }
+    /**
+     * Decodes only the attributes the expiry message needs.
+     */
+    private Task expiryCandidate(StreamImage image) {
+        Task task = new Task();
+        task.setUserId(image.string("userId"));
+        task.setTaskId(image.string("taskId"));
+        task.setUserEmail(image.string("userEmail"));
+        task.setDeadline(image.number("deadline"));
+        return task;
     }
-}
\ No newline at end of file
+}
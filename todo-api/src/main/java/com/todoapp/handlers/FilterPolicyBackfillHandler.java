@@ -0,0 +1,58 @@
+package com.todoapp.handlers;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.todoapp.metrics.Metrics;
+import com.todoapp.metrics.Unit;
+import com.todoapp.resilience.Deadline;
+import com.todoapp.services.NotificationService;
+import software.amazon.awssdk.services.sns.model.ListSubscriptionsByTopicResponse;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One-off backfill of the recipient filter policy on notification subscriptions made before
+ * subscribeUser set one; without it those subscribers receive every user's notifications. Invoked by
+ * hand like {@link IndexBackfillHandler}: pass back the returned cursor until {@code "done": true}.
+ * Safe to rerun, e.g. once pending subscriptions have been confirmed.
+ */
+public class FilterPolicyBackfillHandler implements RequestHandler<Map<String, String>, Map<String, Object>> {
+    // Left for the page in flight when the loop stops
+    private static final long STOP_BEFORE_MILLIS = 10_000;
+
+    private final NotificationService notificationService;
+
+    public FilterPolicyBackfillHandler() {
+        this(new NotificationService(System.getenv("SNS_TOPIC_ARN")));
+    }
+
+    public FilterPolicyBackfillHandler(NotificationService notificationService) {
+        this.notificationService = notificationService;
+    }
+
+    @Override
+    public Map<String, Object> handleRequest(Map<String, String> input, Context context) {
+        return Metrics.record("filterPolicyBackfill", context, () -> Deadline.within(context, () -> backfill(input, context)));
+    }
+
+    private Map<String, Object> backfill(Map<String, String> input, Context context) {
+        String cursor = input != null ? input.get("cursor") : null;
+        int updated = 0;
+        do {
+            ListSubscriptionsByTopicResponse page = notificationService.listSubscriptions(cursor);
+            updated += notificationService.setFilterPolicies(page.subscriptions());
+            cursor = page.nextToken();
+        } while (cursor != null && Deadline.remainingMillis() > STOP_BEFORE_MILLIS);
+        Metrics.add("Updated", Unit.COUNT, updated);
+
+        context.getLogger().log("Set filter policy on " + updated + " subscriptions" + (cursor == null ? ", done" : ""));
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("updated", updated);
+        result.put("done", cursor == null);
+        if (cursor != null) {
+            result.put("cursor", cursor);
+        }
+        return result;
+    }
+}
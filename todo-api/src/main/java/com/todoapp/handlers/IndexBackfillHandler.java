@@ -0,0 +1,59 @@
+package com.todoapp.handlers;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.todoapp.metrics.Metrics;
+import com.todoapp.metrics.Unit;
+import com.todoapp.models.TaskPage;
+import com.todoapp.resilience.Deadline;
+import com.todoapp.services.TaskService;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One-off backfill of userStatus and deadlineBucket on tasks written before those index keys
+ * existed. Invoked by hand: each invocation scans pages until its time is nearly used up and returns
+ * {@code {"updated": n, "cursor": "..."}}; invoke again with that cursor until {@code "done": true}.
+ * Safe to rerun: only tasks still missing a key are written.
+ */
+public class IndexBackfillHandler implements RequestHandler<Map<String, String>, Map<String, Object>> {
+    private static final int PAGE_SIZE = 100;
+    // Left for the page in flight when the loop stops
+    private static final long STOP_BEFORE_MILLIS = 10_000;
+
+    private final TaskService taskService;
+
+    public IndexBackfillHandler() {
+        this(new TaskService());
+    }
+
+    public IndexBackfillHandler(TaskService taskService) {
+        this.taskService = taskService;
+    }
+
+    @Override
+    public Map<String, Object> handleRequest(Map<String, String> input, Context context) {
+        return Metrics.record("indexBackfill", context, () -> Deadline.within(context, () -> backfill(input, context)));
+    }
+
+    private Map<String, Object> backfill(Map<String, String> input, Context context) {
+        String cursor = input != null ? input.get("cursor") : null;
+        int updated = 0;
+        do {
+            TaskPage page = taskService.backfillIndexKeys(cursor, PAGE_SIZE);
+            updated += page.getTasks().size();
+            cursor = page.getNextCursor();
+        } while (cursor != null && Deadline.remainingMillis() > STOP_BEFORE_MILLIS);
+        Metrics.add("Updated", Unit.COUNT, updated);
+
+        context.getLogger().log("Backfilled index keys on " + updated + " tasks" + (cursor == null ? ", done" : ""));
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("updated", updated);
+        result.put("done", cursor == null);
+        if (cursor != null) {
+            result.put("cursor", cursor);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,81 @@
+package com.todoapp.handlers;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse;
+import com.amazonaws.services.lambda.runtime.events.SQSEvent;
+import com.todoapp.metrics.Metrics;
+import com.todoapp.metrics.Unit;
+import com.todoapp.models.SubscriptionMessage;
+import com.todoapp.resilience.Deadline;
+import com.todoapp.services.AwsClients;
+import com.todoapp.services.NotificationService;
+import com.todoapp.utils.JsonUtil;
+import com.todoapp.utils.WorkerPool;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AttributeType;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Consumes the subscription queue filled by {@link AuthHandler}: subscribes the user's address to the
+ * notification topic, then records it in their {@link AuthHandler#SUBSCRIBED_EMAIL_ATTRIBUTE}. Both
+ * calls are idempotent, so failed messages are simply redelivered.
+ */
+public class SubscriptionHandler implements RequestHandler<SQSEvent, SQSBatchResponse> {
+    private final NotificationService notificationService;
+    private final CognitoIdentityProviderClient cognitoClient;
+
+    public SubscriptionHandler() {
+        this(new NotificationService(System.getenv("SNS_TOPIC_ARN")), AwsClients.cognito());
+    }
+
+    public SubscriptionHandler(NotificationService notificationService, CognitoIdentityProviderClient cognitoClient) {
+        this.notificationService = notificationService;
+        this.cognitoClient = cognitoClient;
+    }
+
+    @Override
+    public SQSBatchResponse handleRequest(SQSEvent event, Context context) {
+        return Metrics.record("subscribeUsers", context, () -> {
+            Metrics.add("Records", Unit.COUNT, event.getRecords().size());
+            SQSBatchResponse response = Deadline.within(context, () -> subscribeAll(event, context));
+            Metrics.add("Failures", Unit.COUNT, response.getBatchItemFailures().size());
+            return response;
+        });
+    }
+
+    private SQSBatchResponse subscribeAll(SQSEvent event, Context context) {
+        Map<String, CompletableFuture<Void>> subscriptions = new LinkedHashMap<>();
+        for (SQSEvent.SQSMessage message : event.getRecords()) {
+            subscriptions.put(message.getMessageId(), CompletableFuture.runAsync(() -> subscribe(message), WorkerPool.executor()));
+        }
+
+        List<SQSBatchResponse.BatchItemFailure> failures = new ArrayList<>();
+        for (Map.Entry<String, CompletableFuture<Void>> subscription : subscriptions.entrySet()) {
+            try {
+                subscription.getValue().join();
+            } catch (Exception e) {
+                context.getLogger().log("Error subscribing for message " + subscription.getKey() + ": " + e.getMessage());
+                failures.add(new SQSBatchResponse.BatchItemFailure(subscription.getKey()));
+            }
+        }
+        Metrics.add("Subscriptions", Unit.COUNT, subscriptions.size() - failures.size());
+        return new SQSBatchResponse(failures);
+    }
+
+    private void subscribe(SQSEvent.SQSMessage message) {
+        SubscriptionMessage subscription = JsonUtil.fromJson(message.getBody(), SubscriptionMessage.class);
+        notificationService.subscribeUser(subscription.getEmail());
+        cognitoClient.adminUpdateUserAttributes(r -> r.userPoolId(subscription.getUserPoolId())
+                .username(subscription.getUserName())
+                .userAttributes(AttributeType.builder()
+                        .name(AuthHandler.SUBSCRIBED_EMAIL_ATTRIBUTE)
+                        .value(subscription.getEmail())
+                        .build()));
+    }
+}
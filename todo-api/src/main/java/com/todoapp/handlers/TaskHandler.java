@@ -4,26 +4,64 @@ import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todoapp.exceptions.PreconditionFailedException;
+import com.todoapp.exceptions.ServiceUnavailableException;
+import com.todoapp.exceptions.SyncTokenExpiredException;
+import com.todoapp.exceptions.TaskNotFoundException;
+import com.todoapp.metrics.Metrics;
+import com.todoapp.metrics.Unit;
+import com.todoapp.models.BatchOperation;
+import com.todoapp.models.BatchOperationResult;
+import com.todoapp.models.BatchTaskRequest;
 import com.todoapp.models.Task;
+import com.todoapp.models.TaskChanges;
+import com.todoapp.models.TaskListing;
+import com.todoapp.models.TaskQuery;
 import com.todoapp.models.CreateTaskRequest;
 import com.todoapp.models.UpdateTaskRequest;
+import com.todoapp.resilience.Deadline;
 import com.todoapp.services.TaskService;
+import com.todoapp.utils.JsonUtil;
+import com.todoapp.utils.ResponseWriter;
 import com.todoapp.utils.UUIDGenerator;
 
-import java.util.HashMap;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.List;
+import java.util.Set;
+import java.util.function.BiFunction;
 
 public class TaskHandler {
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_BATCH_OPERATIONS = 500;
+    private static final Set<String> TASK_FIELDS = Set.of(
+            "taskId", "userId", "userEmail", "description", "date", "status", "deadline", "createdAt", "updatedAt",
+            "version");
+
     private final TaskService taskService;
     private final ObjectMapper objectMapper;
+    private final ResponseWriter responseWriter;
 
     public TaskHandler() {
-        this.taskService = new TaskService();
-        this.objectMapper = new ObjectMapper();
+        this(new TaskService());
+    }
+
+    public TaskHandler(TaskService taskService) {
+        this.taskService = taskService;
+        this.objectMapper = JsonUtil.mapper();
+        this.responseWriter = new ResponseWriter(objectMapper);
     }
 
     public APIGatewayProxyResponseEvent createTask(APIGatewayProxyRequestEvent request, Context context) {
+        return instrument("createTask", request, context, this::handleCreateTask);
+    }
+
+    private APIGatewayProxyResponseEvent handleCreateTask(APIGatewayProxyRequestEvent request, Context context) {
         try {
             Map<String, Object> authorizer = request.getRequestContext().getAuthorizer();
             Map<String, String> claims = (Map<String, String>) authorizer.get("claims");
@@ -32,25 +70,23 @@ public class TaskHandler {
 
             CreateTaskRequest createRequest = objectMapper.readValue(request.getBody(), CreateTaskRequest.class);
 
-            Task task = new Task();
-            task.setTaskId(UUIDGenerator.generateUUID());
-            task.setUserId(userId);
-            task.setUserEmail(userEmail);
-            task.setDescription(createRequest.getDescription());
-            task.setDate(createRequest.getDate());
-            task.setStatus("Pending");
-            task.setCreatedAt(System.currentTimeMillis());
-            task.setDeadline(System.currentTimeMillis() + 5 * 60 * 1000); // 5 minutes from now
+            Task task = newTask(userId, userEmail, createRequest.getDescription(), createRequest.getDate());
 
             Task createdTask = taskService.createTask(task);
 
-            return createResponse(200, createdTask);
+            return createResponse(200, createdTask, etagHeader(createdTask));
+        } catch (ServiceUnavailableException e) {
+            return serviceUnavailable(e);
         } catch (Exception e) {
             return createResponse(500, Map.of("error", e.getMessage()));
         }
     }
 
     public APIGatewayProxyResponseEvent getTasks(APIGatewayProxyRequestEvent request, Context context) {
+        return instrument("getTasks", request, context, this::handleGetTasks);
+    }
+
+    private APIGatewayProxyResponseEvent handleGetTasks(APIGatewayProxyRequestEvent request, Context context) {
         try {
             Map<String, Object> authorizer = request.getRequestContext().getAuthorizer();
             Map<String, String> claims = (Map<String, String>) authorizer.get("claims");
@@ -60,49 +96,88 @@ public class TaskHandler {
                 return createResponse(400, Map.of("error", "User ID not found in token."));
             }
 
+            Map<String, String> params = request.getQueryStringParameters();
+            if (params != null && params.containsKey("since")) {
+                return syncTasks(userId, params);
+            }
+
+            TaskQuery query = parseTaskQuery(params);
+
             context.getLogger().log("Fetching tasks for userId: " + userId);
-            List<Task> tasks = taskService.getTasksByUser(userId);
+            TaskListing listing = taskService.listTasks(userId, query);
+            Metrics.add("Items", Unit.COUNT, listing.getItemCount());
 
-            return createResponse(200, tasks);
+            Map<String, String> cacheHeaders = Map.of(
+                    "ETag", listing.getEtag(),
+                    "Cache-Control", "private, no-cache");
+            if (etagMatches(getHeader(request, "If-None-Match"), listing.getEtag())) {
+                return responseWriter.writeJson(304, null, cacheHeaders);
+            }
+            return responseWriter.writeJson(200, listing.getBody(), cacheHeaders);
+        } catch (IllegalArgumentException e) {
+            return createResponse(400, Map.of("error", e.getMessage()));
+        } catch (SyncTokenExpiredException e) {
+            return createResponse(410, Map.of("error", e.getMessage()));
+        } catch (ServiceUnavailableException e) {
+            return serviceUnavailable(e);
         } catch (Exception e) {
             context.getLogger().log("Error getting tasks: " + e.getMessage());
             return createResponse(500, Map.of("error", e.getMessage()));
         }
     }
 
+    // GET /tasks?since=<token>; an empty token starts a sync with the full list
+    private APIGatewayProxyResponseEvent syncTasks(String userId, Map<String, String> params) {
+        if (params.size() > 1) {
+            throw new IllegalArgumentException("since cannot be combined with other parameters");
+        }
+        String token = params.get("since");
+        TaskChanges changes = taskService.syncTasks(userId, token == null || token.isEmpty() ? null : token);
+        Metrics.add("Items", Unit.COUNT, changes.getTasks().size() + changes.getDeleted().size());
+        return responseWriter.write(200, changes, Map.of("Cache-Control", "private, no-store"));
+    }
+
     public APIGatewayProxyResponseEvent updateTask(APIGatewayProxyRequestEvent request, Context context) {
+        return instrument("updateTask", request, context, this::handleUpdateTask);
+    }
+
+    private APIGatewayProxyResponseEvent handleUpdateTask(APIGatewayProxyRequestEvent request, Context context) {
         try {
             Map<String, Object> authorizer = request.getRequestContext().getAuthorizer();
             Map<String, String> claims = (Map<String, String>) authorizer.get("claims");
             String userId = claims.get("sub");
 
             String taskId = request.getPathParameters().get("taskId");
-
-            Task existingTask = taskService.getTask(userId, taskId);
-            if (existingTask == null) {
-                return createResponse(404, Map.of("error", "Task not found"));
-            }
+            Long expectedVersion = parseIfMatch(getHeader(request, "If-Match"));
 
             UpdateTaskRequest updateRequest = objectMapper.readValue(request.getBody(), UpdateTaskRequest.class);
-            if (updateRequest.getDescription() != null) {
-                existingTask.setDescription(updateRequest.getDescription());
-            }
-            if (updateRequest.getDate() != null) {
-                existingTask.setDate(updateRequest.getDate());
-            }
-            if (updateRequest.getStatus() != null) {
-                existingTask.setStatus(updateRequest.getStatus());
-            }
 
-            Task updatedTask = taskService.updateTask(existingTask);
+            Task changes = new Task();
+            changes.setUserId(userId);
+            changes.setTaskId(taskId);
+            changes.setDescription(updateRequest.getDescription());
+            changes.setDate(updateRequest.getDate());
+            changes.setStatus(updateRequest.getStatus());
+
+            Task updatedTask = taskService.updateTask(changes, expectedVersion);
 
-            return createResponse(200, updatedTask);
+            return createResponse(200, updatedTask, etagHeader(updatedTask));
+        } catch (TaskNotFoundException e) {
+            return createResponse(404, Map.of("error", "Task not found"));
+        } catch (PreconditionFailedException e) {
+            return createResponse(412, Map.of("error", e.getMessage()));
+        } catch (ServiceUnavailableException e) {
+            return serviceUnavailable(e);
         } catch (Exception e) {
             return createResponse(500, Map.of("error", e.getMessage()));
         }
     }
 
     public APIGatewayProxyResponseEvent deleteTask(APIGatewayProxyRequestEvent request, Context context) {
+        return instrument("deleteTask", request, context, this::handleDeleteTask);
+    }
+
+    private APIGatewayProxyResponseEvent handleDeleteTask(APIGatewayProxyRequestEvent request, Context context) {
         try {
             Map<String, Object> authorizer = request.getRequestContext().getAuthorizer();
             Map<String, String> claims = (Map<String, String>) authorizer.get("claims");
@@ -113,28 +188,255 @@ public class TaskHandler {
             taskService.deleteTask(userId, taskId);
 
             return createResponse(200, Map.of("message", "Task deleted successfully"));
+        } catch (ServiceUnavailableException e) {
+            return serviceUnavailable(e);
         } catch (Exception e) {
             return createResponse(500, Map.of("error", e.getMessage()));
         }
     }
 
-    private APIGatewayProxyResponseEvent createResponse(int statusCode, Object body) {
+    public APIGatewayProxyResponseEvent batchTasks(APIGatewayProxyRequestEvent request, Context context) {
+        return instrument("batchTasks", request, context, this::handleBatchTasks);
+    }
+
+    private APIGatewayProxyResponseEvent handleBatchTasks(APIGatewayProxyRequestEvent request, Context context) {
         try {
-            APIGatewayProxyResponseEvent response = new APIGatewayProxyResponseEvent();
-            response.setStatusCode(statusCode);
-            response.setBody(objectMapper.writeValueAsString(body));
-
-            Map<String, String> headers = new HashMap<>();
-            headers.put("Content-Type", "application/json");
-            headers.put("Access-Control-Allow-Origin", "*");
-            headers.put("Access-Control-Allow-Methods", "GET,POST,PUT,DELETE,OPTIONS");
-            headers.put("Access-Control-Allow-Headers", "Content-Type,X-Amz-Date,Authorization,X-Api-Key,X-Amz-Security-Token,X-Requested-With");
-            headers.put("Access-Control-Allow-Credentials", "true");
-
-            response.setHeaders(headers);
-            return response;
+            Map<String, Object> authorizer = request.getRequestContext().getAuthorizer();
+            Map<String, String> claims = (Map<String, String>) authorizer.get("claims");
+            String userId = claims.get("sub");
+            String userEmail = claims.get("email");
+
+            BatchTaskRequest batchRequest = objectMapper.readValue(request.getBody(), BatchTaskRequest.class);
+            List<BatchOperation> operations = batchRequest.getOperations();
+            if (operations == null || operations.isEmpty()) {
+                return createResponse(400, Map.of("error", "operations must not be empty"));
+            }
+            if (operations.size() > MAX_BATCH_OPERATIONS) {
+                return createResponse(400, Map.of("error", "At most " + MAX_BATCH_OPERATIONS + " operations per batch"));
+            }
+
+            Metrics.add("Items", Unit.COUNT, operations.size());
+
+            BatchOperationResult[] results = new BatchOperationResult[operations.size()];
+            List<Task> creates = new ArrayList<>();
+            // BatchWriteItem rejects duplicate keys, so repeated deletes collapse into one write
+            Map<String, Task> deletes = new LinkedHashMap<>();
+
+            for (int i = 0; i < operations.size(); i++) {
+                BatchOperation operation = operations.get(i);
+                String op = operation == null ? null : operation.getOp();
+                if ("create".equals(op)) {
+                    Task task = newTask(userId, userEmail, operation.getDescription(), operation.getDate());
+                    creates.add(task);
+                    results[i] = new BatchOperationResult(i, op, task.getTaskId(), null, null);
+                } else if ("delete".equals(op) && operation.getTaskId() != null && !operation.getTaskId().isEmpty()) {
+                    Task key = new Task();
+                    key.setUserId(userId);
+                    key.setTaskId(operation.getTaskId());
+                    deletes.putIfAbsent(key.getTaskId(), key);
+                    results[i] = new BatchOperationResult(i, op, key.getTaskId(), null, null);
+                } else {
+                    String error = "delete".equals(op) ? "taskId is required" : "op must be create or delete";
+                    results[i] = new BatchOperationResult(i, op, null, "failed", error);
+                }
+            }
+
+            // BatchWriteItem can't make a delete conditional, so tasks that don't exist are left out up front
+            Set<String> missing = deletes.isEmpty() ? Set.of() : taskService.missingTaskIds(new ArrayList<>(deletes.values()));
+            deletes.keySet().removeAll(missing);
+            Set<String> failed = taskService.batchWriteTasks(creates, new ArrayList<>(deletes.values()));
+
+            for (BatchOperationResult result : results) {
+                if (result.getStatus() == null && missing.contains(result.getTaskId())) {
+                    result.setStatus("failed");
+                    result.setError("Task not found");
+                } else if (result.getStatus() == null) {
+                    boolean ok = !failed.contains(result.getTaskId());
+                    result.setStatus(ok ? "succeeded" : "failed");
+                    result.setError(ok ? null : "Write was not processed");
+                }
+            }
+
+            return responseWriter.write(200, Map.of("results", results), Map.of());
+        } catch (ServiceUnavailableException e) {
+            return serviceUnavailable(e);
         } catch (Exception e) {
-            throw new RuntimeException(e);
+            return createResponse(500, Map.of("error", e.getMessage()));
         }
     }
+
+    private Task newTask(String userId, String userEmail, String description, String date) {
+        Task task = new Task();
+        String taskId = UUIDGenerator.generateUUID();
+        // createdAt is the id's own timestamp so createdAfter key ranges and filters always agree
+        long createdAt = UUIDGenerator.timestampOf(taskId);
+        task.setTaskId(taskId);
+        task.setUserId(userId);
+        task.setUserEmail(userEmail);
+        task.setDescription(description);
+        task.setDate(date);
+        task.setStatus("Pending");
+        task.setCreatedAt(createdAt);
+        task.setDeadline(createdAt + 5 * 60 * 1000); // 5 minutes from now
+        task.setVersion(1L);
+        return task;
+    }
+
+    private String getHeader(APIGatewayProxyRequestEvent request, String name) {
+        Map<String, String> headers = request.getHeaders();
+        if (headers == null) {
+            return null;
+        }
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            if (name.equalsIgnoreCase(header.getKey())) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    private Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new PreconditionFailedException("If-Match must be a strong ETag");
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match does not match the current ETag");
+        }
+    }
+
+    private boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            // If-None-Match uses weak comparison
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Map<String, String> etagHeader(Task task) {
+        long version = task.getVersion() == null ? 0 : task.getVersion();
+        return Map.of("ETag", "\"" + version + "\"");
+    }
+
+    private TaskQuery parseTaskQuery(Map<String, String> params) {
+        TaskQuery query = new TaskQuery();
+        if (params == null) {
+            return query;
+        }
+
+        String limit = params.get("limit");
+        if (limit != null) {
+            try {
+                query.setLimit(Integer.parseInt(limit));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("limit must be a number");
+            }
+            if (query.getLimit() < 1 || query.getLimit() > MAX_PAGE_SIZE) {
+                throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+            }
+        }
+
+        String cursor = params.get("cursor");
+        if (cursor != null && !cursor.isEmpty()) {
+            query.setCursor(cursor);
+            if (query.getLimit() == null) {
+                query.setLimit(DEFAULT_PAGE_SIZE);
+            }
+        }
+
+        String status = params.get("status");
+        if (status != null && !status.isEmpty()) {
+            query.setStatus(status);
+        }
+        String from = params.get("from");
+        if (from != null && !from.isEmpty()) {
+            query.setFrom(from);
+        }
+        String to = params.get("to");
+        if (to != null && !to.isEmpty()) {
+            query.setTo(to);
+        }
+        if (query.getFrom() != null && query.getTo() != null && query.getFrom().compareTo(query.getTo()) > 0) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+
+        String createdAfter = params.get("createdAfter");
+        if (createdAfter != null && !createdAfter.isEmpty()) {
+            query.setCreatedAfter(parseInstant(createdAfter));
+        }
+        String order = params.get("order");
+        if (order != null && !order.isEmpty()) {
+            if (!order.equals("asc") && !order.equals("desc")) {
+                throw new IllegalArgumentException("order must be asc or desc");
+            }
+            query.setDescending(order.equals("desc"));
+        }
+
+        String fields = params.get("fields");
+        if (fields != null && !fields.isEmpty()) {
+            Set<String> projection = new LinkedHashSet<>();
+            for (String field : fields.split(",")) {
+                String name = field.trim();
+                if (!TASK_FIELDS.contains(name)) {
+                    throw new IllegalArgumentException("Unknown field: " + name);
+                }
+                projection.add(name);
+            }
+            query.setFields(List.copyOf(projection));
+        }
+
+        return query;
+    }
+
+    // Accepts epoch milliseconds or an ISO-8601 instant such as 2024-05-01T12:00:00Z
+    private static long parseInstant(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            try {
+                return Instant.parse(value).toEpochMilli();
+            } catch (DateTimeParseException invalid) {
+                throw new IllegalArgumentException("createdAfter must be epoch milliseconds or an ISO-8601 instant");
+            }
+        }
+    }
+
+    private APIGatewayProxyResponseEvent instrument(String operation, APIGatewayProxyRequestEvent request, Context context,
+                                                    BiFunction<APIGatewayProxyRequestEvent, Context, APIGatewayProxyResponseEvent> handler) {
+        return Metrics.record(operation, context, () -> {
+            Metrics.add("RequestBytes", Unit.BYTES, request.getBody() != null ? request.getBody().length() : 0);
+            APIGatewayProxyResponseEvent response = Deadline.within(context, () -> handler.apply(request, context));
+            Metrics.add("ResponseBytes", Unit.BYTES, response.getBody() != null ? response.getBody().length() : 0);
+            Metrics.add("ServerErrors", Unit.COUNT, response.getStatusCode() >= 500 ? 1 : 0);
+            Metrics.property("StatusCode", String.valueOf(response.getStatusCode()));
+            return response;
+        });
+    }
+
+    private APIGatewayProxyResponseEvent serviceUnavailable(ServiceUnavailableException e) {
+        return createResponse(503, Map.of("error", e.getMessage()),
+                Map.of("Retry-After", String.valueOf(e.getRetryAfterSeconds())));
+    }
+
+    private APIGatewayProxyResponseEvent createResponse(int statusCode, Object body) {
+        return createResponse(statusCode, body, Map.of());
+    }
+
+    private APIGatewayProxyResponseEvent createResponse(int statusCode, Object body, Map<String, String> extraHeaders) {
+        return responseWriter.write(statusCode, body, extraHeaders);
+    }
 }
\ No newline at end of file
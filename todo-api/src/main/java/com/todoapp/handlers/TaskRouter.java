@@ -0,0 +1,131 @@
+package com.todoapp.handlers;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.todoapp.utils.JsonUtil;
+import com.todoapp.utils.ResponseWriter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.BiFunction;
+
+/**
+ * Single entry point for every task route, so all API traffic shares one function and its warm
+ * containers. Routes are registered once at construction: API Gateway's {@code resource} template
+ * selects the handler with one map lookup, and requests without it (local runs) are matched by
+ * path segments against the same templates.
+ */
+public class TaskRouter implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+    private final Map<String, BiFunction<APIGatewayProxyRequestEvent, Context, APIGatewayProxyResponseEvent>> routes = new HashMap<>();
+    private final Map<String, List<String>> methodsByResource = new HashMap<>();
+    private final List<String[]> templates = new ArrayList<>();
+    private final ResponseWriter responseWriter = new ResponseWriter(JsonUtil.mapper());
+
+    public TaskRouter() {
+        this(new TaskHandler());
+    }
+
+    public TaskRouter(TaskHandler taskHandler) {
+        route("POST", "/tasks", taskHandler::createTask);
+        route("GET", "/tasks", taskHandler::getTasks);
+        route("POST", "/tasks/batch", taskHandler::batchTasks);
+        route("PUT", "/tasks/{taskId}", taskHandler::updateTask);
+        route("DELETE", "/tasks/{taskId}", taskHandler::deleteTask);
+    }
+
+    private void route(String method, String resource,
+                       BiFunction<APIGatewayProxyRequestEvent, Context, APIGatewayProxyResponseEvent> handler) {
+        routes.put(method + " " + resource, handler);
+        if (!methodsByResource.containsKey(resource)) {
+            methodsByResource.put(resource, new ArrayList<>());
+            templates.add(segments(resource));
+        }
+        methodsByResource.get(resource).add(method);
+    }
+
+    @Override
+    public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent request, Context context) {
+        String resource = request.getResource();
+        if (resource == null || !methodsByResource.containsKey(resource)) {
+            resource = match(request);
+            if (resource == null) {
+                return responseWriter.write(404, Map.of("error", "Not found"), Map.of());
+            }
+        }
+
+        BiFunction<APIGatewayProxyRequestEvent, Context, APIGatewayProxyResponseEvent> handler =
+                routes.get(request.getHttpMethod() + " " + resource);
+        if (handler == null) {
+            String allowed = String.join(",", new TreeSet<>(methodsByResource.get(resource)));
+            return responseWriter.write(405, Map.of("error", "Method not allowed"), Map.of("Allow", allowed));
+        }
+        return handler.apply(request, context);
+    }
+
+    // Resolves a raw path to its route template and fills in the path parameters, as API Gateway would.
+    // Literal segments win over parameters, so /tasks/batch never becomes a taskId.
+    private String match(APIGatewayProxyRequestEvent request) {
+        if (request.getPath() == null) {
+            return null;
+        }
+        String[] path = segments(request.getPath());
+        String[] best = null;
+        for (String[] template : templates) {
+            if (matches(template, path) && (best == null || parameterCount(template) < parameterCount(best))) {
+                best = template;
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+
+        Map<String, String> pathParameters = new HashMap<>();
+        for (int i = 0; i < best.length; i++) {
+            if (isParameter(best[i])) {
+                pathParameters.put(best[i].substring(1, best[i].length() - 1), path[i]);
+            }
+        }
+        if (!pathParameters.isEmpty()) {
+            request.setPathParameters(pathParameters);
+        }
+        String resource = "/" + String.join("/", best);
+        request.setResource(resource);
+        return resource;
+    }
+
+    private static boolean matches(String[] template, String[] path) {
+        if (template.length != path.length) {
+            return false;
+        }
+        for (int i = 0; i < template.length; i++) {
+            if (!isParameter(template[i]) && !template[i].equals(path[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int parameterCount(String[] template) {
+        int count = 0;
+        for (String segment : template) {
+            if (isParameter(segment)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static boolean isParameter(String segment) {
+        return segment.startsWith("{") && segment.endsWith("}");
+    }
+
+    private static String[] segments(String path) {
+        String trimmed = path.replaceAll("^/+|/+$", "");
+        return trimmed.isEmpty() ? new String[0] : trimmed.split("/+");
+    }
+}
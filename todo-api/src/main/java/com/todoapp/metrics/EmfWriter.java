@@ -0,0 +1,127 @@
+package com.todoapp.metrics;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Writes invocations as CloudWatch Embedded Metric Format log lines. Handlers only enqueue; a
+ * daemon thread renders each document into a reused buffer and writes it to stdout, so the
+ * response path never formats or does I/O for metrics. A document still queued when the
+ * container freezes is written once it thaws; when the queue is full, documents are dropped.
+ */
+final class EmfWriter {
+    private static final int QUEUE_CAPACITY = 1024;
+
+    private final String namespace;
+    private final String functionName;
+    private final PrintStream out;
+    private final BlockingQueue<Invocation> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final StringBuilder line = new StringBuilder(2048);
+
+    EmfWriter(String namespace, String functionName, PrintStream out) {
+        this.namespace = namespace;
+        this.functionName = functionName;
+        this.out = out;
+
+        Thread writer = new Thread(this::drain, "metrics-writer");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "metrics-flush"));
+    }
+
+    void publish(Invocation invocation) {
+        queue.offer(invocation);
+    }
+
+    private void drain() {
+        while (true) {
+            try {
+                write(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                // A malformed document must not stop the writer
+            }
+        }
+    }
+
+    private void flush() {
+        for (Invocation invocation = queue.poll(); invocation != null; invocation = queue.poll()) {
+            write(invocation);
+        }
+    }
+
+    private synchronized void write(Invocation invocation) {
+        // Late SDK callbacks may still be adding to the invocation
+        synchronized (invocation) {
+            render(invocation);
+        }
+        out.println(line);
+    }
+
+    private void render(Invocation invocation) {
+        line.setLength(0);
+        line.append("{\"_aws\":{\"Timestamp\":").append(invocation.timestamp())
+                .append(",\"CloudWatchMetrics\":[{\"Namespace\":");
+        appendString(namespace);
+        line.append(",\"Dimensions\":[[\"Operation\"]],\"Metrics\":[");
+        boolean first = true;
+        for (Map.Entry<String, Invocation.Value> metric : invocation.metrics().entrySet()) {
+            if (!first) {
+                line.append(',');
+            }
+            first = false;
+            line.append("{\"Name\":");
+            appendString(metric.getKey());
+            line.append(",\"Unit\":\"").append(metric.getValue().unit.cloudWatchName()).append("\"}");
+        }
+        line.append("]}]},\"Operation\":");
+        appendString(invocation.operation());
+        for (Map.Entry<String, Invocation.Value> metric : invocation.metrics().entrySet()) {
+            line.append(',');
+            appendString(metric.getKey());
+            line.append(':');
+            appendNumber(metric.getValue().amount);
+        }
+        appendProperty("FunctionName", functionName);
+        appendProperty("RequestId", invocation.requestId());
+        for (Map.Entry<String, String> property : invocation.properties().entrySet()) {
+            appendProperty(property.getKey(), property.getValue());
+        }
+        line.append('}');
+    }
+
+    private void appendProperty(String name, String value) {
+        if (value != null) {
+            line.append(',');
+            appendString(name);
+            line.append(':');
+            appendString(value);
+        }
+    }
+
+    private void appendNumber(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            line.append((long) value);
+        } else {
+            line.append(value);
+        }
+    }
+
+    private void appendString(String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                line.append('\\').append(c);
+            } else if (c < 0x20) {
+                line.append(String.format("\\u%04x", (int) c));
+            } else {
+                line.append(c);
+            }
+        }
+        line.append('"');
+    }
+}
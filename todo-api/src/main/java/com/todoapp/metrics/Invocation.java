@@ -0,0 +1,56 @@
+package com.todoapp.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Metrics and properties collected during one handler invocation. SDK calls fanned out to the
+ * worker pool record into the same invocation, so updates are synchronized.
+ */
+final class Invocation {
+    private final String operation;
+    private final String requestId;
+    private final long timestamp;
+    private final Map<String, Value> metrics = new LinkedHashMap<>();
+    private final Map<String, String> properties = new LinkedHashMap<>();
+
+    Invocation(String operation, String requestId, long timestamp) {
+        this.operation = operation;
+        this.requestId = requestId;
+        this.timestamp = timestamp;
+    }
+
+    synchronized void add(String name, Unit unit, double amount) {
+        Value value = metrics.get(name);
+        if (value == null) {
+            metrics.put(name, new Value(unit, amount));
+        } else {
+            value.amount += amount;
+        }
+    }
+
+    synchronized void property(String name, String value) {
+        properties.put(name, value);
+    }
+
+    String operation() { return operation; }
+
+    String requestId() { return requestId; }
+
+    long timestamp() { return timestamp; }
+
+    // Only read by the writer after the invocation has been published
+    Map<String, Value> metrics() { return metrics; }
+
+    Map<String, String> properties() { return properties; }
+
+    static final class Value {
+        final Unit unit;
+        double amount;
+
+        Value(Unit unit, double amount) {
+            this.unit = unit;
+            this.amount = amount;
+        }
+    }
+}
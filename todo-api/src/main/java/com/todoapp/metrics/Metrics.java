@@ -0,0 +1,88 @@
+package com.todoapp.metrics;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import org.crac.Core;
+import org.crac.Resource;
+
+import java.util.function.Supplier;
+
+/**
+ * Entry point for handler instrumentation. {@link #record} times one invocation and publishes it
+ * as an Embedded Metric Format document; code running inside it, including SDK calls on worker
+ * threads, adds to the same document through {@link #add}. Lambda runs one invocation per
+ * container at a time, so the current invocation is process-wide rather than per thread.
+ */
+public final class Metrics implements Resource {
+    // EMF lines are only meaningful to CloudWatch Logs; local runs such as the load test skip them
+    private static final boolean ENABLED = System.getenv("AWS_LAMBDA_FUNCTION_NAME") != null;
+    private static final EmfWriter WRITER = ENABLED ? new EmfWriter(
+            envOrDefault("METRICS_NAMESPACE", "TodoApp"),
+            System.getenv("AWS_LAMBDA_FUNCTION_NAME"),
+            System.out) : null;
+    private static final Metrics RESTORE_HOOK = new Metrics();
+
+    private static volatile Invocation current;
+    // The first invocation after init or after a SnapStart restore pays the cold start
+    private static volatile boolean coldStart = true;
+
+    static {
+        Core.getGlobalContext().register(RESTORE_HOOK);
+    }
+
+    private Metrics() {}
+
+    public static <T> T record(String operation, Context context, Supplier<T> body) {
+        if (!ENABLED) {
+            return body.get();
+        }
+        Invocation invocation = new Invocation(operation,
+                context != null ? context.getAwsRequestId() : null, System.currentTimeMillis());
+        invocation.add("ColdStart", Unit.COUNT, coldStart ? 1 : 0);
+        coldStart = false;
+        current = invocation;
+
+        long start = System.nanoTime();
+        try {
+            return body.get();
+        } catch (RuntimeException | Error e) {
+            invocation.add("Errors", Unit.COUNT, 1);
+            throw e;
+        } finally {
+            invocation.add("Duration", Unit.MILLISECONDS, (System.nanoTime() - start) / 1_000_000.0);
+            current = null;
+            WRITER.publish(invocation);
+        }
+    }
+
+    /**
+     * Adds to a metric of the current invocation; repeated calls sum. Outside an invocation, such as
+     * SnapStart priming, this is a no-op.
+     */
+    public static void add(String name, Unit unit, double amount) {
+        Invocation invocation = current;
+        if (invocation != null) {
+            invocation.add(name, unit, amount);
+        }
+    }
+
+    public static void property(String name, String value) {
+        Invocation invocation = current;
+        if (invocation != null) {
+            invocation.property(name, value);
+        }
+    }
+
+    @Override
+    public void beforeCheckpoint(org.crac.Context<? extends Resource> context) {
+    }
+
+    @Override
+    public void afterRestore(org.crac.Context<? extends Resource> context) {
+        coldStart = true;
+    }
+
+    private static String envOrDefault(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null ? value : defaultValue;
+    }
+}
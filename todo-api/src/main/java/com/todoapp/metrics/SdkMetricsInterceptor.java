@@ -0,0 +1,128 @@
+package com.todoapp.metrics;
+
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.SdkResponse;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+
+import java.util.List;
+
+/**
+ * Records time, call count, retries and errors of every SDK call into the current invocation,
+ * per service (e.g. DynamoDbTime, SqsCalls). DynamoDB requests are asked for their consumed
+ * capacity, which is summed into DynamoDbConsumedCapacity.
+ */
+public class SdkMetricsInterceptor implements ExecutionInterceptor {
+    private static final ExecutionAttribute<Long> START_NANOS = new ExecutionAttribute<>("MetricsStartNanos");
+    private static final ExecutionAttribute<Integer> ATTEMPTS = new ExecutionAttribute<>("MetricsAttempts");
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+        executionAttributes.putAttribute(START_NANOS, System.nanoTime());
+        executionAttributes.putAttribute(ATTEMPTS, 0);
+    }
+
+    @Override
+    public SdkRequest modifyRequest(Context.ModifyRequest context, ExecutionAttributes executionAttributes) {
+        return withConsumedCapacity(context.request());
+    }
+
+    @Override
+    public void beforeTransmission(Context.BeforeTransmission context, ExecutionAttributes executionAttributes) {
+        executionAttributes.putAttribute(ATTEMPTS, executionAttributes.getAttribute(ATTEMPTS) + 1);
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+        String service = record(executionAttributes);
+        double capacity = consumedCapacity(context.response());
+        if (capacity > 0) {
+            Metrics.add(service + "ConsumedCapacity", Unit.COUNT, capacity);
+        }
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes executionAttributes) {
+        String service = record(executionAttributes);
+        Metrics.add(service + "Errors", Unit.COUNT, 1);
+    }
+
+    private String record(ExecutionAttributes executionAttributes) {
+        String service = executionAttributes.getAttribute(SdkExecutionAttribute.SERVICE_NAME);
+        Long start = executionAttributes.getAttribute(START_NANOS);
+        Integer attempts = executionAttributes.getAttribute(ATTEMPTS);
+
+        Metrics.add(service + "Calls", Unit.COUNT, 1);
+        if (start != null) {
+            Metrics.add(service + "Time", Unit.MILLISECONDS, (System.nanoTime() - start) / 1_000_000.0);
+        }
+        if (attempts != null && attempts > 1) {
+            Metrics.add(service + "Retries", Unit.COUNT, attempts - 1);
+        }
+        return service;
+    }
+
+    private static SdkRequest withConsumedCapacity(SdkRequest request) {
+        return switch (request) {
+            case GetItemRequest r when r.returnConsumedCapacity() == null ->
+                    r.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+            case PutItemRequest r when r.returnConsumedCapacity() == null ->
+                    r.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+            case UpdateItemRequest r when r.returnConsumedCapacity() == null ->
+                    r.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+            case DeleteItemRequest r when r.returnConsumedCapacity() == null ->
+                    r.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+            case QueryRequest r when r.returnConsumedCapacity() == null ->
+                    r.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+            case BatchGetItemRequest r when r.returnConsumedCapacity() == null ->
+                    r.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+            case BatchWriteItemRequest r when r.returnConsumedCapacity() == null ->
+                    r.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+            default -> request;
+        };
+    }
+
+    private static double consumedCapacity(SdkResponse response) {
+        return switch (response) {
+            case GetItemResponse r -> units(r.consumedCapacity());
+            case PutItemResponse r -> units(r.consumedCapacity());
+            case UpdateItemResponse r -> units(r.consumedCapacity());
+            case DeleteItemResponse r -> units(r.consumedCapacity());
+            case QueryResponse r -> units(r.consumedCapacity());
+            case BatchGetItemResponse r -> units(r.consumedCapacity());
+            case BatchWriteItemResponse r -> units(r.consumedCapacity());
+            default -> 0;
+        };
+    }
+
+    private static double units(ConsumedCapacity capacity) {
+        return capacity != null && capacity.capacityUnits() != null ? capacity.capacityUnits() : 0;
+    }
+
+    private static double units(List<ConsumedCapacity> capacities) {
+        double total = 0;
+        for (ConsumedCapacity capacity : capacities) {
+            total += units(capacity);
+        }
+        return total;
+    }
+}
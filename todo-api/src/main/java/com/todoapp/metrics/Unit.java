@@ -0,0 +1,18 @@
+package com.todoapp.metrics;
+
+/**
+ * CloudWatch units used by our metrics.
+ */
+public enum Unit {
+    MILLISECONDS("Milliseconds"),
+    BYTES("Bytes"),
+    COUNT("Count");
+
+    private final String cloudWatchName;
+
+    Unit(String cloudWatchName) {
+        this.cloudWatchName = cloudWatchName;
+    }
+
+    public String cloudWatchName() { return cloudWatchName; }
+}
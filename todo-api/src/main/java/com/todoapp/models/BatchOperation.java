@@ -0,0 +1,20 @@
+package com.todoapp.models;
+
+public class BatchOperation {
+    private String op;
+    private String taskId;
+    private String description;
+    private String date;
+
+    public String getOp() { return op; }
+    public void setOp(String op) { this.op = op; }
+
+    public String getTaskId() { return taskId; }
+    public void setTaskId(String taskId) { this.taskId = taskId; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public String getDate() { return date; }
+    public void setDate(String date) { this.date = date; }
+}
@@ -0,0 +1,34 @@
+package com.todoapp.models;
+
+public class BatchOperationResult {
+    private int index;
+    private String op;
+    private String taskId;
+    private String status;
+    private String error;
+
+    public BatchOperationResult() {}
+
+    public BatchOperationResult(int index, String op, String taskId, String status, String error) {
+        this.index = index;
+        this.op = op;
+        this.taskId = taskId;
+        this.status = status;
+        this.error = error;
+    }
+
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+
+    public String getOp() { return op; }
+    public void setOp(String op) { this.op = op; }
+
+    public String getTaskId() { return taskId; }
+    public void setTaskId(String taskId) { this.taskId = taskId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
@@ -0,0 +1,10 @@
+package com.todoapp.models;
+
+import java.util.List;
+
+public class BatchTaskRequest {
+    private List<BatchOperation> operations;
+
+    public List<BatchOperation> getOperations() { return operations; }
+    public void setOperations(List<BatchOperation> operations) { this.operations = operations; }
+}
@@ -0,0 +1,29 @@
+package com.todoapp.models;
+
+public class ExpiryMessage {
+    private String userId;
+    private String taskId;
+    private String userEmail;
+    private Long deadline;
+
+    public ExpiryMessage() {}
+
+    public ExpiryMessage(String userId, String taskId, String userEmail, Long deadline) {
+        this.userId = userId;
+        this.taskId = taskId;
+        this.userEmail = userEmail;
+        this.deadline = deadline;
+    }
+
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+
+    public String getTaskId() { return taskId; }
+    public void setTaskId(String taskId) { this.taskId = taskId; }
+
+    public String getUserEmail() { return userEmail; }
+    public void setUserEmail(String userEmail) { this.userEmail = userEmail; }
+
+    public Long getDeadline() { return deadline; }
+    public void setDeadline(Long deadline) { this.deadline = deadline; }
+}
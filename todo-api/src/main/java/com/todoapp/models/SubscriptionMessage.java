@@ -0,0 +1,24 @@
+package com.todoapp.models;
+
+public class SubscriptionMessage {
+    private String userPoolId;
+    private String userName;
+    private String email;
+
+    public SubscriptionMessage() {}
+
+    public SubscriptionMessage(String userPoolId, String userName, String email) {
+        this.userPoolId = userPoolId;
+        this.userName = userName;
+        this.email = email;
+    }
+
+    public String getUserPoolId() { return userPoolId; }
+    public void setUserPoolId(String userPoolId) { this.userPoolId = userPoolId; }
+
+    public String getUserName() { return userName; }
+    public void setUserName(String userName) { this.userName = userName; }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+}
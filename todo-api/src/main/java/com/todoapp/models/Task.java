@@ -1,10 +1,5 @@
 package com.todoapp.models;
 
-import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
-import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
-import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortKey;
-
-@DynamoDbBean
 public class Task {
     private String taskId;
     private String userId;
@@ -14,12 +9,14 @@ public class Task {
     private String status;
     private Long deadline;
     private Long createdAt;
+    private Long updatedAt;
+    private Long version;
+    private Long deadlineBucket;
+    private String userStatus;
 
-    @DynamoDbPartitionKey
     public String getUserId() { return userId; }
     public void setUserId(String userId) { this.userId = userId; }
 
-    @DynamoDbSortKey
     public String getTaskId() { return taskId; }
     public void setTaskId(String taskId) { this.taskId = taskId; }
 
@@ -40,4 +37,16 @@ public class Task {
 
     public Long getCreatedAt() { return createdAt; }
     public void setCreatedAt(Long createdAt) { this.createdAt = createdAt; }
+
+    public Long getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Long updatedAt) { this.updatedAt = updatedAt; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
+    public Long getDeadlineBucket() { return deadlineBucket; }
+    public void setDeadlineBucket(Long deadlineBucket) { this.deadlineBucket = deadlineBucket; }
+
+    public String getUserStatus() { return userStatus; }
+    public void setUserStatus(String userStatus) { this.userStatus = userStatus; }
 }
\ No newline at end of file
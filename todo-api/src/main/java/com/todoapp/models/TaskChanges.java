@@ -0,0 +1,25 @@
+package com.todoapp.models;
+
+import java.util.List;
+
+/**
+ * Result of a delta sync: tasks created or updated and tasks deleted since the client's token,
+ * plus the token for the next sync.
+ */
+public class TaskChanges {
+    private final List<Task> tasks;
+    private final List<Tombstone> deleted;
+    private final String nextToken;
+
+    public TaskChanges(List<Task> tasks, List<Tombstone> deleted, String nextToken) {
+        this.tasks = tasks;
+        this.deleted = deleted;
+        this.nextToken = nextToken;
+    }
+
+    public List<Task> getTasks() { return tasks; }
+
+    public List<Tombstone> getDeleted() { return deleted; }
+
+    public String getNextToken() { return nextToken; }
+}
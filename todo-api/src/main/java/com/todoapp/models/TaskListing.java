@@ -0,0 +1,22 @@
+package com.todoapp.models;
+
+/**
+ * A serialized GET /tasks response body together with its strong ETag.
+ */
+public class TaskListing {
+    private final byte[] body;
+    private final String etag;
+    private final int itemCount;
+
+    public TaskListing(byte[] body, String etag, int itemCount) {
+        this.body = body;
+        this.etag = etag;
+        this.itemCount = itemCount;
+    }
+
+    public byte[] getBody() { return body; }
+
+    public String getEtag() { return etag; }
+
+    public int getItemCount() { return itemCount; }
+}
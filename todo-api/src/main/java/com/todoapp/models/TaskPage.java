@@ -0,0 +1,21 @@
+package com.todoapp.models;
+
+import java.util.List;
+
+public class TaskPage {
+    private List<Task> tasks;
+    private String nextCursor;
+
+    public TaskPage() {}
+
+    public TaskPage(List<Task> tasks, String nextCursor) {
+        this.tasks = tasks;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Task> getTasks() { return tasks; }
+    public void setTasks(List<Task> tasks) { this.tasks = tasks; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
@@ -0,0 +1,54 @@
+package com.todoapp.models;
+
+import java.util.List;
+
+public class TaskQuery {
+    private Integer limit;
+    private String cursor;
+    private List<String> fields;
+    private String status;
+    private String from;
+    private String to;
+    private Long createdAfter;
+    private boolean descending;
+
+    public Integer getLimit() { return limit; }
+    public void setLimit(Integer limit) { this.limit = limit; }
+
+    public String getCursor() { return cursor; }
+    public void setCursor(String cursor) { this.cursor = cursor; }
+
+    public List<String> getFields() { return fields; }
+    public void setFields(List<String> fields) { this.fields = fields; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getFrom() { return from; }
+    public void setFrom(String from) { this.from = from; }
+
+    public String getTo() { return to; }
+    public void setTo(String to) { this.to = to; }
+
+    public Long getCreatedAfter() { return createdAfter; }
+    public void setCreatedAfter(Long createdAfter) { this.createdAfter = createdAfter; }
+
+    public boolean isDescending() { return descending; }
+    public void setDescending(boolean descending) { this.descending = descending; }
+
+    public boolean isPaginated() {
+        return limit != null || cursor != null;
+    }
+
+    /**
+     * The parts of the query a cursor's start key is only valid for: they pick the index and key condition.
+     */
+    public String cursorScope() {
+        return status + "|" + from + "|" + to + "|" + createdAfter + "|" + descending;
+    }
+
+    public String cacheKey() {
+        return limit + "|" + cursor + "|" + fields + "|" + status + "|" + from + "|" + to
+                + "|" + createdAfter + "|" + descending;
+    }
+}
@@ -0,0 +1,78 @@
+package com.todoapp.models;
+
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.StaticTableSchema;
+
+import java.util.List;
+
+import static software.amazon.awssdk.enhanced.dynamodb.mapper.StaticAttributeTags.primaryPartitionKey;
+import static software.amazon.awssdk.enhanced.dynamodb.mapper.StaticAttributeTags.primarySortKey;
+import static software.amazon.awssdk.enhanced.dynamodb.mapper.StaticAttributeTags.secondaryPartitionKey;
+import static software.amazon.awssdk.enhanced.dynamodb.mapper.StaticAttributeTags.secondarySortKey;
+
+/**
+ * Hand-registered mapping for the TodoTasks table, so no bean introspection happens at runtime.
+ * Every attribute added to {@link Task} must be registered here as well.
+ */
+public final class TaskSchema {
+    public static final String DEADLINE_BUCKET_INDEX = "DeadlineBucketIndex";
+    public static final String USER_STATUS_INDEX = "UserStatusIndex";
+    public static final String USER_DATE_INDEX = "UserDateIndex";
+    public static final String USER_UPDATED_INDEX = "UserUpdatedIndex";
+
+    public static final TableSchema<Task> TABLE_SCHEMA = StaticTableSchema.builder(Task.class)
+            .newItemSupplier(Task::new)
+            .addAttribute(String.class, a -> a.name("userId")
+                    .getter(Task::getUserId)
+                    .setter(Task::setUserId)
+                    .tags(primaryPartitionKey(), secondaryPartitionKey(List.of(USER_DATE_INDEX, USER_UPDATED_INDEX))))
+            .addAttribute(String.class, a -> a.name("taskId")
+                    .getter(Task::getTaskId)
+                    .setter(Task::setTaskId)
+                    .tags(primarySortKey(), secondarySortKey(USER_STATUS_INDEX)))
+            .addAttribute(String.class, a -> a.name("userEmail")
+                    .getter(Task::getUserEmail)
+                    .setter(Task::setUserEmail))
+            .addAttribute(String.class, a -> a.name("description")
+                    .getter(Task::getDescription)
+                    .setter(Task::setDescription))
+            .addAttribute(String.class, a -> a.name("date")
+                    .getter(Task::getDate)
+                    .setter(Task::setDate)
+                    .tags(secondarySortKey(USER_DATE_INDEX)))
+            .addAttribute(String.class, a -> a.name("status")
+                    .getter(Task::getStatus)
+                    .setter(Task::setStatus))
+            .addAttribute(Long.class, a -> a.name("deadline")
+                    .getter(Task::getDeadline)
+                    .setter(Task::setDeadline)
+                    .tags(secondarySortKey(DEADLINE_BUCKET_INDEX)))
+            .addAttribute(Long.class, a -> a.name("createdAt")
+                    .getter(Task::getCreatedAt)
+                    .setter(Task::setCreatedAt))
+            .addAttribute(Long.class, a -> a.name("updatedAt")
+                    .getter(Task::getUpdatedAt)
+                    .setter(Task::setUpdatedAt)
+                    .tags(secondarySortKey(USER_UPDATED_INDEX)))
+            .addAttribute(Long.class, a -> a.name("version")
+                    .getter(Task::getVersion)
+                    .setter(Task::setVersion))
+            .addAttribute(Long.class, a -> a.name("deadlineBucket")
+                    .getter(Task::getDeadlineBucket)
+                    .setter(Task::setDeadlineBucket)
+                    .tags(secondaryPartitionKey(DEADLINE_BUCKET_INDEX)))
+            .addAttribute(String.class, a -> a.name("userStatus")
+                    .getter(Task::getUserStatus)
+                    .setter(Task::setUserStatus)
+                    .tags(secondaryPartitionKey(USER_STATUS_INDEX)))
+            .build();
+
+    private TaskSchema() {}
+
+    /**
+     * Partition key of UserStatusIndex. Must be rewritten whenever a task's status changes.
+     */
+    public static String userStatus(String userId, String status) {
+        return userId + "#" + status;
+    }
+}
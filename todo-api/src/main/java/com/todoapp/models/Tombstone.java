@@ -0,0 +1,33 @@
+package com.todoapp.models;
+
+/**
+ * Marker left behind by a deleted task so delta syncs can report the deletion. expiresAt is the
+ * table's TTL attribute, in epoch seconds.
+ */
+public class Tombstone {
+    private String userId;
+    private String taskId;
+    private Long deletedAt;
+    private Long expiresAt;
+
+    public Tombstone() {}
+
+    public Tombstone(String userId, String taskId, Long deletedAt, Long expiresAt) {
+        this.userId = userId;
+        this.taskId = taskId;
+        this.deletedAt = deletedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+
+    public String getTaskId() { return taskId; }
+    public void setTaskId(String taskId) { this.taskId = taskId; }
+
+    public Long getDeletedAt() { return deletedAt; }
+    public void setDeletedAt(Long deletedAt) { this.deletedAt = deletedAt; }
+
+    public Long getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(Long expiresAt) { this.expiresAt = expiresAt; }
+}
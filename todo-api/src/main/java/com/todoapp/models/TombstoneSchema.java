@@ -0,0 +1,37 @@
+package com.todoapp.models;
+
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.StaticTableSchema;
+
+import static software.amazon.awssdk.enhanced.dynamodb.mapper.StaticAttributeTags.primaryPartitionKey;
+import static software.amazon.awssdk.enhanced.dynamodb.mapper.StaticAttributeTags.primarySortKey;
+import static software.amazon.awssdk.enhanced.dynamodb.mapper.StaticAttributeTags.secondarySortKey;
+
+/**
+ * Hand-registered mapping for the TodoTaskTombstones table. UserDeletedIndex is a local index, so it
+ * shares the table's userId partition key.
+ */
+public final class TombstoneSchema {
+    public static final String USER_DELETED_INDEX = "UserDeletedIndex";
+
+    public static final TableSchema<Tombstone> TABLE_SCHEMA = StaticTableSchema.builder(Tombstone.class)
+            .newItemSupplier(Tombstone::new)
+            .addAttribute(String.class, a -> a.name("userId")
+                    .getter(Tombstone::getUserId)
+                    .setter(Tombstone::setUserId)
+                    .tags(primaryPartitionKey()))
+            .addAttribute(String.class, a -> a.name("taskId")
+                    .getter(Tombstone::getTaskId)
+                    .setter(Tombstone::setTaskId)
+                    .tags(primarySortKey()))
+            .addAttribute(Long.class, a -> a.name("deletedAt")
+                    .getter(Tombstone::getDeletedAt)
+                    .setter(Tombstone::setDeletedAt)
+                    .tags(secondarySortKey(USER_DELETED_INDEX)))
+            .addAttribute(Long.class, a -> a.name("expiresAt")
+                    .getter(Tombstone::getExpiresAt)
+                    .setter(Tombstone::setExpiresAt))
+            .build();
+
+    private TombstoneSchema() {}
+}
@@ -0,0 +1,101 @@
+package com.todoapp.resilience;
+
+import java.time.Clock;
+
+/**
+ * Token bucket whose refill rate adapts to throttling. A throttle cuts the rate to 70% of the rate
+ * actually being sent, at most once per {@value #DECREASE_INTERVAL_MILLIS} ms so one overload that
+ * throttles many concurrent calls counts once; without throttles the rate climbs back linearly.
+ * The bucket holds one second of tokens, so until the table pushes back it only caps bursts at
+ * the maximum rate.
+ */
+public class AdaptiveRateLimiter {
+    private static final double DECREASE_FACTOR = 0.7;
+    private static final long DECREASE_INTERVAL_MILLIS = 500;
+    private static final long MEASURE_WINDOW_MILLIS = 500;
+
+    private final double minRate;
+    private final double maxRate;
+    private final double recoveryPerSecond;
+    private final Clock clock;
+
+    private double rate;
+    private double tokens;
+    private long lastRefillMillis;
+    private long lastDecreaseMillis;
+    // Rate of granted tokens, measured over fixed windows and smoothed
+    private double sentRate;
+    private long windowStartMillis;
+    private int windowCount;
+
+    public AdaptiveRateLimiter(double minRate, double maxRate, double recoveryPerSecond, Clock clock) {
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.recoveryPerSecond = recoveryPerSecond;
+        this.clock = clock;
+        this.rate = maxRate;
+        this.tokens = maxRate;
+        this.lastRefillMillis = clock.millis();
+        this.lastDecreaseMillis = Long.MIN_VALUE / 2;
+        this.windowStartMillis = lastRefillMillis;
+    }
+
+    /**
+     * Takes a token, waiting for one if the bucket is empty. Returns the milliseconds waited, or -1
+     * without taking a token when the wait would exceed {@code maxWaitMillis}.
+     */
+    public long acquire(long maxWaitMillis) throws InterruptedException {
+        long waitMillis;
+        synchronized (this) {
+            refill();
+            if (tokens >= 1) {
+                tokens--;
+                windowCount++;
+                return 0;
+            }
+            waitMillis = (long) Math.ceil((1 - tokens) / rate * 1000);
+            if (waitMillis > maxWaitMillis) {
+                return -1;
+            }
+            // Reserve the token now so concurrent callers queue up behind each other
+            tokens--;
+            windowCount++;
+        }
+        Thread.sleep(waitMillis);
+        return waitMillis;
+    }
+
+    public synchronized void onThrottle() {
+        refill();
+        long now = clock.millis();
+        if (now - lastDecreaseMillis < DECREASE_INTERVAL_MILLIS) {
+            return;
+        }
+        lastDecreaseMillis = now;
+        double sending = sentRate > 0 ? Math.min(rate, sentRate) : rate;
+        rate = Math.max(minRate, sending * DECREASE_FACTOR);
+        tokens = Math.min(tokens, 0);
+    }
+
+    public synchronized double rate() {
+        return rate;
+    }
+
+    private void refill() {
+        long now = clock.millis();
+        if (now - windowStartMillis >= MEASURE_WINDOW_MILLIS) {
+            double windowRate = windowCount * 1000.0 / (now - windowStartMillis);
+            sentRate = sentRate == 0 ? windowRate : 0.5 * sentRate + 0.5 * windowRate;
+            windowStartMillis = now;
+            windowCount = 0;
+        }
+
+        double elapsedSeconds = (now - lastRefillMillis) / 1000.0;
+        if (elapsedSeconds <= 0) {
+            return;
+        }
+        lastRefillMillis = now;
+        rate = Math.min(maxRate, rate + recoveryPerSecond * elapsedSeconds);
+        tokens = Math.min(rate, tokens + rate * elapsedSeconds);
+    }
+}
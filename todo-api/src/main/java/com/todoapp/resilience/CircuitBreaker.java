@@ -0,0 +1,62 @@
+package com.todoapp.resilience;
+
+import java.time.Clock;
+
+/**
+ * Consecutive-failure circuit breaker. After {@code failureThreshold} failures in a row it opens and
+ * rejects calls for {@code openMillis}; then one probe call per open period is let through, which
+ * either closes the circuit or opens it again.
+ */
+public class CircuitBreaker {
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final Clock clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtMillis;
+
+    public CircuitBreaker(int failureThreshold, long openMillis, Clock clock) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns 0 when the call may proceed, otherwise the milliseconds until the circuit will let a
+     * probe through.
+     */
+    public synchronized long tryAcquire() {
+        if (state == State.CLOSED) {
+            return 0;
+        }
+        long now = clock.millis();
+        long remaining = openedAtMillis + openMillis - now;
+        if (remaining <= 0) {
+            // A probe that never reported back is replaced after another open period
+            state = State.HALF_OPEN;
+            openedAtMillis = now;
+            return 0;
+        }
+        return remaining;
+    }
+
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAtMillis = clock.millis();
+        }
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+}
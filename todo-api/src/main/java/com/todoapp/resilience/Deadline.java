@@ -0,0 +1,41 @@
+package com.todoapp.resilience;
+
+import com.amazonaws.services.lambda.runtime.Context;
+
+import java.util.function.Supplier;
+
+/**
+ * Time left for the current invocation, derived from {@link Context#getRemainingTimeInMillis()} minus
+ * a reserve for building the response. Like metrics, it is process-wide because Lambda runs one
+ * invocation per container at a time; worker threads of the invocation see the same deadline.
+ */
+public final class Deadline {
+    private static final long RESPONSE_RESERVE_MILLIS = 1000;
+    // Budget for calls made outside an invocation, e.g. SnapStart priming or local tools
+    private static final long DEFAULT_BUDGET_MILLIS = 10_000;
+
+    private static volatile long expiresAtMillis;
+
+    private Deadline() {}
+
+    public static <T> T within(Context context, Supplier<T> body) {
+        if (context == null) {
+            return body.get();
+        }
+        long previous = expiresAtMillis;
+        expiresAtMillis = System.currentTimeMillis() + context.getRemainingTimeInMillis() - RESPONSE_RESERVE_MILLIS;
+        try {
+            return body.get();
+        } finally {
+            expiresAtMillis = previous;
+        }
+    }
+
+    public static long remainingMillis() {
+        long expiresAt = expiresAtMillis;
+        if (expiresAt == 0) {
+            return DEFAULT_BUDGET_MILLIS;
+        }
+        return Math.max(0, expiresAt - System.currentTimeMillis());
+    }
+}
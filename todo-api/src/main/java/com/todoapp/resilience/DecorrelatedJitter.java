@@ -0,0 +1,25 @@
+package com.todoapp.resilience;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Backoff delays with decorrelated jitter: each delay is drawn between the base and three times the
+ * previous delay, capped. One instance covers the retries of a single call.
+ */
+public class DecorrelatedJitter {
+    private final long baseMillis;
+    private final long capMillis;
+    private long previousMillis;
+
+    public DecorrelatedJitter(long baseMillis, long capMillis) {
+        this.baseMillis = baseMillis;
+        this.capMillis = capMillis;
+        this.previousMillis = baseMillis;
+    }
+
+    public long nextDelayMillis() {
+        long upper = Math.max(baseMillis + 1, previousMillis * 3);
+        previousMillis = Math.min(capMillis, ThreadLocalRandom.current().nextLong(baseMillis, upper));
+        return previousMillis;
+    }
+}
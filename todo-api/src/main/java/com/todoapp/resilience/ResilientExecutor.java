@@ -0,0 +1,138 @@
+package com.todoapp.resilience;
+
+import com.todoapp.exceptions.ServiceUnavailableException;
+import com.todoapp.metrics.Metrics;
+import com.todoapp.metrics.Unit;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+
+import java.time.Clock;
+import java.util.function.Supplier;
+
+/**
+ * Runs calls to one downstream service through a circuit breaker, an adaptive rate limiter and
+ * deadline-bounded retries with decorrelated jitter. Throttling, 5xx responses and client-side I/O
+ * errors are retried; any other error is the caller's and is rethrown unchanged. When the circuit is
+ * open, no token is available in time or retries would outlive the invocation, the call fails with
+ * {@link ServiceUnavailableException} carrying a Retry-After hint.
+ *
+ * <p>Each call adds to the invocation's Throttles, Retries, RateLimitDelay and CircuitRejections metrics.
+ */
+public class ResilientExecutor {
+    private static final int MAX_ATTEMPTS = 8;
+    private static final long BACKOFF_BASE_MILLIS = 25;
+    private static final long BACKOFF_CAP_MILLIS = 2000;
+    private static final int FAILURE_THRESHOLD = 10;
+    private static final long OPEN_MILLIS = 5000;
+    private static final double MIN_RATE = 5;
+    private static final double MAX_RATE = 1000;
+    private static final double RECOVERY_PER_SECOND = 20;
+
+    private final AdaptiveRateLimiter rateLimiter;
+    private final CircuitBreaker circuitBreaker;
+    private final long backoffBaseMillis;
+    private final long backoffCapMillis;
+
+    public ResilientExecutor() {
+        this(new AdaptiveRateLimiter(MIN_RATE, MAX_RATE, RECOVERY_PER_SECOND, Clock.systemUTC()),
+                new CircuitBreaker(FAILURE_THRESHOLD, OPEN_MILLIS, Clock.systemUTC()));
+    }
+
+    public ResilientExecutor(AdaptiveRateLimiter rateLimiter, CircuitBreaker circuitBreaker) {
+        this(rateLimiter, circuitBreaker, BACKOFF_BASE_MILLIS, BACKOFF_CAP_MILLIS);
+    }
+
+    // Tests shorten the backoff so exhausting every attempt doesn't take seconds
+    ResilientExecutor(AdaptiveRateLimiter rateLimiter, CircuitBreaker circuitBreaker,
+                      long backoffBaseMillis, long backoffCapMillis) {
+        this.rateLimiter = rateLimiter;
+        this.circuitBreaker = circuitBreaker;
+        this.backoffBaseMillis = backoffBaseMillis;
+        this.backoffCapMillis = backoffCapMillis;
+    }
+
+    public void run(Runnable call) {
+        call(() -> {
+            call.run();
+            return null;
+        });
+    }
+
+    public <T> T call(Supplier<T> call) {
+        DecorrelatedJitter backoff = new DecorrelatedJitter(backoffBaseMillis, backoffCapMillis);
+        for (int attempt = 1; ; attempt++) {
+            long openFor = circuitBreaker.tryAcquire();
+            if (openFor > 0) {
+                Metrics.add("CircuitRejections", Unit.COUNT, 1);
+                throw new ServiceUnavailableException("Database unavailable", retryAfterSeconds(openFor));
+            }
+            acquireToken();
+
+            RuntimeException failure;
+            try {
+                T result = call.get();
+                circuitBreaker.onSuccess();
+                return result;
+            } catch (RuntimeException e) {
+                if (!isRetryable(e)) {
+                    // The service answered; errors such as failed conditions are not outages
+                    circuitBreaker.onSuccess();
+                    throw e;
+                }
+                failure = e;
+            }
+
+            if (isThrottle(failure)) {
+                Metrics.add("Throttles", Unit.COUNT, 1);
+                rateLimiter.onThrottle();
+            }
+            circuitBreaker.onFailure();
+
+            long delay = backoff.nextDelayMillis();
+            if (attempt >= MAX_ATTEMPTS || delay >= Deadline.remainingMillis()) {
+                throw new ServiceUnavailableException("Database busy, retries exhausted", retryAfterSeconds(delay), failure);
+            }
+            Metrics.add("Retries", Unit.COUNT, 1);
+            sleep(delay);
+        }
+    }
+
+    private void acquireToken() {
+        try {
+            long waited = rateLimiter.acquire(Deadline.remainingMillis());
+            if (waited < 0) {
+                throw new ServiceUnavailableException("Database busy", 1);
+            }
+            if (waited > 0) {
+                Metrics.add("RateLimitDelay", Unit.MILLISECONDS, waited);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while rate limited", 1);
+        }
+    }
+
+    static boolean isThrottle(RuntimeException e) {
+        return e instanceof AwsServiceException service && service.isThrottlingException();
+    }
+
+    static boolean isRetryable(RuntimeException e) {
+        if (e instanceof AwsServiceException service) {
+            return service.isThrottlingException() || service.statusCode() >= 500;
+        }
+        return e instanceof SdkClientException;
+    }
+
+    private static long retryAfterSeconds(long millis) {
+        return Math.max(1, (millis + 999) / 1000);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while retrying", 1);
+        }
+    }
+}
@@ -1,64 +1,639 @@
 package com.todoapp.services;
 
+import software.amazon.awssdk.core.pagination.sync.SdkIterable;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
-import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.TableMetadata;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteResult;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.ReadBatch;
+import software.amazon.awssdk.enhanced.dynamodb.model.WriteBatch;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
-import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValuesOnConditionCheckFailure;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+import com.todoapp.exceptions.PreconditionFailedException;
+import com.todoapp.exceptions.TaskNotFoundException;
 import com.todoapp.models.Task;
+import com.todoapp.models.TaskPage;
+import com.todoapp.models.TaskQuery;
+import com.todoapp.models.TaskSchema;
+import com.todoapp.models.Tombstone;
+import com.todoapp.models.TombstoneSchema;
+import com.todoapp.resilience.ResilientExecutor;
+import com.todoapp.utils.CursorCodec;
+import com.todoapp.utils.UUIDGenerator;
+import com.todoapp.utils.WorkerPool;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class DynamoDBService {
+    public static final String TABLE_NAME = "TodoTasks";
+    public static final String TOMBSTONE_TABLE_NAME = "TodoTaskTombstones";
+    private static final int BATCH_WRITE_SIZE = 25;
+    private static final int BATCH_GET_SIZE = 100;
+    private static final int BATCH_WRITE_ATTEMPTS = 5;
+    private static final long BATCH_BACKOFF_BASE_MS = 50;
+    private static final long BATCH_BACKOFF_MAX_MS = 1000;
+    // The sweeper's state lives in the tasks table under a partition no Cognito user id can take.
+    // It has no status, so the stream filters never deliver it
+    private static final Map<String, AttributeValue> SWEEPER_STATE_KEY = Map.of(
+            "userId", AttributeValue.fromS("#expiry-sweeper"),
+            "taskId", AttributeValue.fromS("watermark"));
+
+    private final DynamoDbClient dynamoDbClient;
     private final DynamoDbEnhancedClient enhancedClient;
     private final DynamoDbTable<Task> taskTable;
+    private final DynamoDbTable<Tombstone> tombstoneTable;
+    // Every table call goes through it; the shared client has SDK retries disabled in its favour
+    private final ResilientExecutor resilience;
 
     public DynamoDBService() {
-        DynamoDbClient dynamoDbClient = DynamoDbClient.builder()
-                .region(Region.EU_CENTRAL_1)
-                .build();
+        this(AwsClients.dynamoDb(), AwsClients.dynamoDbEnhanced(), new ResilientExecutor());
+    }
 
-        this.enhancedClient = DynamoDbEnhancedClient.builder()
-                .dynamoDbClient(dynamoDbClient)
-                .build();
+    /**
+     * Uses the given client instead of the shared one, e.g. one pointed at DynamoDB Local.
+     */
+    public DynamoDBService(DynamoDbClient dynamoDbClient) {
+        this(dynamoDbClient, new ResilientExecutor());
+    }
 
-        this.taskTable = enhancedClient.table("TodoTasks",
-                TableSchema.fromBean(Task.class));
+    public DynamoDBService(DynamoDbClient dynamoDbClient, ResilientExecutor resilience) {
+        this(dynamoDbClient, DynamoDbEnhancedClient.builder().dynamoDbClient(dynamoDbClient).build(), resilience);
+    }
+
+    private DynamoDBService(DynamoDbClient dynamoDbClient, DynamoDbEnhancedClient enhancedClient,
+                            ResilientExecutor resilience) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.enhancedClient = enhancedClient;
+        this.resilience = resilience;
+
+        this.taskTable = enhancedClient.table(TABLE_NAME, TaskSchema.TABLE_SCHEMA);
+        this.tombstoneTable = enhancedClient.table(TOMBSTONE_TABLE_NAME, TombstoneSchema.TABLE_SCHEMA);
     }
 
     public Task createTask(Task task) {
-        taskTable.putItem(task);
+        resilience.run(() -> taskTable.putItem(task));
         return task;
     }
 
     public List<Task> getTasksByUser(String userId) {
-        return taskTable.query(r -> r.queryConditional(
+        return resilience.call(() -> taskTable.query(r -> r.queryConditional(
                         QueryConditional.keyEqualTo(k -> k.partitionValue(userId)))
                 )
                 .items()
                 .stream()
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Reads a user's tasks, optionally narrowed by status and/or a date range. A status is served by a
+     * key condition on UserStatusIndex, which is sorted by task id like the base table, so tasks
+     * without a date are listed too; a date range alongside it is a filter. A date range alone is a key
+     * condition on UserDateIndex. createdAfter is a key range over the time-ordered task ids, and a
+     * filter on UserDateIndex. Descending queries walk the sort key backwards, so a limit returns the newest.
+     * A filtered page reads on until {@code limit} tasks match, so only the last page comes back short.
+     */
+    public TaskPage getTasksByUser(String userId, TaskQuery query) {
+        QueryEnhancedRequest.Builder request = QueryEnhancedRequest.builder();
+        Function<QueryEnhancedRequest, SdkIterable<Page<Task>>> source;
+        String indexName = null;
+
+        boolean dateKeyed = false;
+        if (query.getStatus() != null) {
+            String userStatus = TaskSchema.userStatus(userId, query.getStatus());
+            request.queryConditional(createdAfterCondition(userStatus, query.getCreatedAfter()));
+            indexName = TaskSchema.USER_STATUS_INDEX;
+            source = taskTable.index(indexName)::query;
+        } else if (query.getFrom() != null || query.getTo() != null) {
+            request.queryConditional(dateCondition(userId, query.getFrom(), query.getTo()));
+            indexName = TaskSchema.USER_DATE_INDEX;
+            source = taskTable.index(indexName)::query;
+            dateKeyed = true;
+        } else {
+            request.queryConditional(createdAfterCondition(userId, query.getCreatedAfter()));
+            source = taskTable::query;
+        }
+
+        Expression.Builder filter = Expression.builder();
+        List<String> conditions = new ArrayList<>();
+        if (query.getFrom() != null && !dateKeyed) {
+            conditions.add("#date >= :from");
+            filter.putExpressionName("#date", "date").putExpressionValue(":from", AttributeValue.fromS(query.getFrom()));
+        }
+        if (query.getTo() != null && !dateKeyed) {
+            conditions.add("#date <= :to");
+            filter.putExpressionName("#date", "date").putExpressionValue(":to", AttributeValue.fromS(query.getTo()));
+        }
+        if (query.getCreatedAfter() != null) {
+            // Also drops random (v4) ids from before ids were time-ordered that land inside the key range
+            conditions.add("#createdAt > :createdAfter");
+            filter.putExpressionName("#createdAt", "createdAt")
+                    .putExpressionValue(":createdAfter", AttributeValue.fromN(query.getCreatedAfter().toString()));
+        }
+        if (!conditions.isEmpty()) {
+            request.filterExpression(filter.expression(String.join(" AND ", conditions)).build());
+        }
+        request.scanIndexForward(!query.isDescending());
+
+        boolean filtered = !conditions.isEmpty();
+        List<String> startKeyAttributes = startKeyAttributes(indexName);
+        Set<String> addedAttributes = new HashSet<>();
+        if (query.getFields() != null && !query.getFields().isEmpty()) {
+            List<String> projection = new ArrayList<>(query.getFields());
+            if (filtered && query.isPaginated()) {
+                // A page cut short below needs its last item's key for the cursor
+                startKeyAttributes.stream().filter(name -> !projection.contains(name)).forEach(addedAttributes::add);
+                projection.addAll(addedAttributes);
+            }
+            request.attributesToProject(projection);
+        }
+
+        if (!query.isPaginated()) {
+            QueryEnhancedRequest allPages = request.build();
+            List<Task> tasks = resilience.call(() -> source.apply(allPages)
+                    .stream()
+                    .flatMap(page -> page.items().stream())
+                    .collect(Collectors.toList()));
+            return new TaskPage(tasks, null);
+        }
+
+        request.limit(query.getLimit());
+        if (query.getCursor() != null) {
+            Map<String, AttributeValue> startKey = CursorCodec.decode(query.getCursor(), query.cursorScope());
+            AttributeValue cursorUser = startKey.get("userId");
+            if (cursorUser == null || !userId.equals(cursorUser.s())) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            request.exclusiveStartKey(startKey);
+        }
+
+        if (!filtered) {
+            // Only the first page is read; the rest of the partition stays untouched
+            QueryEnhancedRequest firstPage = request.build();
+            Page<Task> page = resilience.call(() -> source.apply(firstPage).iterator().next());
+            return new TaskPage(page.items(), CursorCodec.encode(page.lastEvaluatedKey(), query.cursorScope()));
+        }
+
+        // Limit caps the items read before the filter applies, so pages are read until enough match.
+        // The page that overshoots is cut, and the cursor resumes after its last item kept
+        List<Task> tasks = new ArrayList<>();
+        Map<String, AttributeValue> lastKey = request.build().exclusiveStartKey();
+        do {
+            QueryEnhancedRequest pageRequest = request.exclusiveStartKey(lastKey).build();
+            Page<Task> page = resilience.call(() -> source.apply(pageRequest).iterator().next());
+            int wanted = query.getLimit() - tasks.size();
+            if (page.items().size() > wanted) {
+                tasks.addAll(page.items().subList(0, wanted));
+                lastKey = taskTable.tableSchema().itemToMap(tasks.get(tasks.size() - 1), startKeyAttributes);
+            } else {
+                tasks.addAll(page.items());
+                lastKey = page.lastEvaluatedKey();
+            }
+        } while (lastKey != null && !lastKey.isEmpty() && tasks.size() < query.getLimit());
+
+        for (Task task : tasks) {
+            clearAttributes(task, addedAttributes);
+        }
+        return new TaskPage(tasks, CursorCodec.encode(lastKey, query.cursorScope()));
+    }
+
+    // The attributes an ExclusiveStartKey needs on the table or on one of its indexes
+    private List<String> startKeyAttributes(String indexName) {
+        TableMetadata metadata = taskTable.tableSchema().tableMetadata();
+        List<String> attributes = new ArrayList<>();
+        attributes.add(metadata.primaryPartitionKey());
+        metadata.primarySortKey().ifPresent(attributes::add);
+        if (indexName != null) {
+            attributes.add(metadata.indexPartitionKey(indexName));
+            metadata.indexSortKey(indexName).ifPresent(attributes::add);
+        }
+        return attributes.stream().distinct().collect(Collectors.toList());
+    }
+
+    private static void clearAttributes(Task task, Set<String> attributes) {
+        for (String attribute : attributes) {
+            switch (attribute) {
+                case "userId" -> task.setUserId(null);
+                case "taskId" -> task.setTaskId(null);
+                case "date" -> task.setDate(null);
+                case "userStatus" -> task.setUserStatus(null);
+                default -> throw new IllegalStateException("Unexpected key attribute: " + attribute);
+            }
+        }
+    }
+
+    private QueryConditional dateCondition(String partitionValue, String from, String to) {
+        if (from != null && to != null) {
+            return QueryConditional.sortBetween(
+                    Key.builder().partitionValue(partitionValue).sortValue(from).build(),
+                    Key.builder().partitionValue(partitionValue).sortValue(to).build());
+        }
+        if (from != null) {
+            return QueryConditional.sortGreaterThanOrEqualTo(k -> k.partitionValue(partitionValue).sortValue(from));
+        }
+        return QueryConditional.sortLessThanOrEqualTo(k -> k.partitionValue(partitionValue).sortValue(to));
+    }
+
+    private QueryConditional createdAfterCondition(String partitionValue, Long createdAfter) {
+        if (createdAfter == null) {
+            return QueryConditional.keyEqualTo(k -> k.partitionValue(partitionValue));
+        }
+        String lowerBound = UUIDGenerator.lowerBound(createdAfter + 1);
+        return QueryConditional.sortGreaterThanOrEqualTo(k -> k.partitionValue(partitionValue).sortValue(lowerBound));
+    }
+
+    /**
+     * Applies the non-null description/date/status/updatedAt of {@code changes} in a single conditional UpdateItem
+     * and bumps the version. A null expectedVersion skips the optimistic-locking check.
+     */
+    public Task updateTaskAttributes(Task changes, Long expectedVersion) {
+        Map<String, String> names = new HashMap<>();
+        Map<String, AttributeValue> values = new HashMap<>();
+        List<String> assignments = new ArrayList<>();
+
+        addAssignment("description", changes.getDescription(), names, values, assignments);
+        addAssignment("date", changes.getDate(), names, values, assignments);
+        addAssignment("status", changes.getStatus(), names, values, assignments);
+        // userId is part of the key, so the UserStatusIndex key can be derived without a read
+        addAssignment("userStatus", changes.getStatus() == null ? null
+                : TaskSchema.userStatus(changes.getUserId(), changes.getStatus()), names, values, assignments);
+
+        if (changes.getUpdatedAt() != null) {
+            names.put("#updatedAt", "updatedAt");
+            values.put(":updatedAt", AttributeValue.fromN(changes.getUpdatedAt().toString()));
+            assignments.add("#updatedAt = :updatedAt");
+        }
+
+        names.put("#taskId", "taskId");
+        names.put("#version", "version");
+        values.put(":one", AttributeValue.fromN("1"));
+
+        String updateExpression = (assignments.isEmpty() ? "" : "SET " + String.join(", ", assignments) + " ")
+                + "ADD #version :one";
+        if (changes.getStatus() != null && !"Pending".equals(changes.getStatus())) {
+            // Keeps DeadlineBucketIndex sparse: only pending tasks are visible to the sweeper
+            names.put("#deadlineBucket", "deadlineBucket");
+            updateExpression += " REMOVE #deadlineBucket";
+        }
+
+        String conditionExpression = "attribute_exists(#taskId)";
+        if (expectedVersion != null) {
+            values.put(":expected", AttributeValue.fromN(expectedVersion.toString()));
+            // Items written before versioning was introduced have no version attribute and count as 0
+            conditionExpression += expectedVersion == 0
+                    ? " AND (attribute_not_exists(#version) OR #version = :expected)"
+                    : " AND #version = :expected";
+        }
+
+        UpdateItemRequest request = UpdateItemRequest.builder()
+                .tableName(TABLE_NAME)
+                .key(Map.of(
+                        "userId", AttributeValue.fromS(changes.getUserId()),
+                        "taskId", AttributeValue.fromS(changes.getTaskId())))
+                .updateExpression(updateExpression)
+                .conditionExpression(conditionExpression)
+                .expressionAttributeNames(names)
+                .expressionAttributeValues(values)
+                .returnValues(ReturnValue.ALL_NEW)
+                .returnValuesOnConditionCheckFailure(ReturnValuesOnConditionCheckFailure.ALL_OLD)
+                .build();
+
+        try {
+            UpdateItemResponse response = resilience.call(() -> dynamoDbClient.updateItem(request));
+            return taskTable.tableSchema().mapToItem(response.attributes());
+        } catch (ConditionalCheckFailedException e) {
+            if (!e.hasItem() || e.item().isEmpty()) {
+                throw new TaskNotFoundException(changes.getTaskId());
+            }
+            throw new PreconditionFailedException("Task was modified by another request");
+        }
+    }
+
+    /**
+     * Flips a task from Pending to Expired in one conditional UpdateItem. Returns the expired task,
+     * or null when the task no longer exists or has already left Pending.
+     */
+    public Task expireTask(String userId, String taskId, long updatedAt) {
+        UpdateItemRequest request = UpdateItemRequest.builder()
+                .tableName(TABLE_NAME)
+                .key(Map.of(
+                        "userId", AttributeValue.fromS(userId),
+                        "taskId", AttributeValue.fromS(taskId)))
+                .updateExpression("SET #status = :expired, #userStatus = :userStatus, #updatedAt = :updatedAt "
+                        + "ADD #version :one REMOVE #deadlineBucket")
+                .conditionExpression("#status = :pending")
+                .expressionAttributeNames(Map.of(
+                        "#status", "status", "#version", "version", "#deadlineBucket", "deadlineBucket",
+                        "#userStatus", "userStatus", "#updatedAt", "updatedAt"))
+                .expressionAttributeValues(Map.of(
+                        ":expired", AttributeValue.fromS("Expired"),
+                        ":userStatus", AttributeValue.fromS(TaskSchema.userStatus(userId, "Expired")),
+                        ":pending", AttributeValue.fromS("Pending"),
+                        ":one", AttributeValue.fromN("1"),
+                        ":updatedAt", AttributeValue.fromN(Long.toString(updatedAt))))
+                .returnValues(ReturnValue.ALL_NEW)
+                .build();
+
+        try {
+            return taskTable.tableSchema().mapToItem(resilience.call(() -> dynamoDbClient.updateItem(request)).attributes());
+        } catch (ConditionalCheckFailedException e) {
+            return null;
+        }
+    }
+
+    private void addAssignment(String attribute, String value, Map<String, String> names,
+                               Map<String, AttributeValue> values, List<String> assignments) {
+        if (value != null) {
+            names.put("#" + attribute, attribute);
+            values.put(":" + attribute, AttributeValue.fromS(value));
+            assignments.add("#" + attribute + " = :" + attribute);
+        }
+    }
+
+    /**
+     * Writes puts and deletes through BatchWriteItem in chunks that run concurrently. Each delete is
+     * paired with its tombstone put in the same request, so a delete chunk holds 12 of them.
+     * Returns the taskIds that could not be written after retrying UnprocessedItems.
+     */
+    public Set<String> batchWriteTasks(List<Task> puts, List<Tombstone> deletes) {
+        List<CompletableFuture<Set<String>>> futures = new ArrayList<>();
+        for (int from = 0; from < puts.size(); from += BATCH_WRITE_SIZE) {
+            List<Task> chunk = puts.subList(from, Math.min(from + BATCH_WRITE_SIZE, puts.size()));
+            futures.add(CompletableFuture.supplyAsync(() -> writeChunk(chunk, List.of()), WorkerPool.executor()));
+        }
+        int deletesPerChunk = BATCH_WRITE_SIZE / 2;
+        for (int from = 0; from < deletes.size(); from += deletesPerChunk) {
+            List<Tombstone> chunk = deletes.subList(from, Math.min(from + deletesPerChunk, deletes.size()));
+            futures.add(CompletableFuture.supplyAsync(() -> writeChunk(List.of(), chunk), WorkerPool.executor()));
+        }
+
+        Set<String> failed = new HashSet<>();
+        for (CompletableFuture<Set<String>> future : futures) {
+            failed.addAll(future.join());
+        }
+        return failed;
+    }
+
+    private Set<String> writeChunk(List<Task> puts, List<Tombstone> deletes) {
+        List<Task> pendingPuts = puts;
+        List<Tombstone> pendingDeletes = deletes;
+
+        try {
+            for (int attempt = 1; attempt <= BATCH_WRITE_ATTEMPTS; attempt++) {
+                WriteBatch.Builder<Task> batch = WriteBatch.builder(Task.class).mappedTableResource(taskTable);
+                pendingPuts.forEach(batch::addPutItem);
+                pendingDeletes.forEach(tombstone -> batch.addDeleteItem(key(tombstone.getUserId(), tombstone.getTaskId())));
+                WriteBatch writeBatch = batch.build();
+                BatchWriteItemEnhancedRequest.Builder request = BatchWriteItemEnhancedRequest.builder()
+                        .addWriteBatch(writeBatch);
+                if (!pendingDeletes.isEmpty()) {
+                    WriteBatch.Builder<Tombstone> tombstones = WriteBatch.builder(Tombstone.class)
+                            .mappedTableResource(tombstoneTable);
+                    pendingDeletes.forEach(tombstones::addPutItem);
+                    request.addWriteBatch(tombstones.build());
+                }
+                BatchWriteItemEnhancedRequest batchRequest = request.build();
+
+                BatchWriteResult result = resilience.call(() -> enhancedClient.batchWriteItem(batchRequest));
+
+                pendingPuts = result.unprocessedPutItemsForTable(taskTable);
+                // A delete is done only once both the item is gone and its tombstone is written
+                Set<String> unprocessedDeletes = result.unprocessedDeleteItemsForTable(taskTable).stream()
+                        .map(key -> key.sortKeyValue().get().s())
+                        .collect(Collectors.toSet());
+                if (!pendingDeletes.isEmpty()) {
+                    result.unprocessedPutItemsForTable(tombstoneTable)
+                            .forEach(tombstone -> unprocessedDeletes.add(tombstone.getTaskId()));
+                }
+                pendingDeletes = pendingDeletes.stream()
+                        .filter(tombstone -> unprocessedDeletes.contains(tombstone.getTaskId()))
+                        .collect(Collectors.toList());
+
+                if (pendingPuts.isEmpty() && pendingDeletes.isEmpty()) {
+                    return Set.of();
+                }
+                if (attempt < BATCH_WRITE_ATTEMPTS) {
+                    // Full jitter keeps concurrent chunks from retrying in lockstep
+                    long cap = Math.min(BATCH_BACKOFF_MAX_MS, BATCH_BACKOFF_BASE_MS << attempt);
+                    Thread.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // The whole chunk is reported as failed below
+        }
+
+        Set<String> failed = new HashSet<>();
+        pendingPuts.forEach(task -> failed.add(task.getTaskId()));
+        pendingDeletes.forEach(tombstone -> failed.add(tombstone.getTaskId()));
+        return failed;
+    }
+
+    /**
+     * Deletes the task and writes its tombstone in one transaction, so a sync never sees one without
+     * the other.
+     */
+    public void deleteTask(Tombstone tombstone) {
+        Key key = key(tombstone.getUserId(), tombstone.getTaskId());
+        resilience.run(() -> enhancedClient.transactWriteItems(r -> r
+                .addDeleteItem(taskTable, key)
+                .addPutItem(tombstoneTable, tombstone)));
+    }
+
+    /**
+     * Tasks of the user whose updatedAt is after {@code since}, read from UserUpdatedIndex.
+     */
+    public List<Task> getTasksUpdatedSince(String userId, long since) {
+        return resilience.call(() -> taskTable.index(TaskSchema.USER_UPDATED_INDEX)
+                .query(r -> r.queryConditional(QueryConditional.sortGreaterThan(
+                        k -> k.partitionValue(userId).sortValue(since))))
+                .stream()
+                .flatMap(page -> page.items().stream())
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Tombstones of the user's tasks deleted after {@code since}, read from UserDeletedIndex.
+     */
+    public List<Tombstone> getTombstonesSince(String userId, long since) {
+        return resilience.call(() -> tombstoneTable.index(TombstoneSchema.USER_DELETED_INDEX)
+                .query(r -> r.queryConditional(QueryConditional.sortGreaterThan(
+                        k -> k.partitionValue(userId).sortValue(since))))
+                .stream()
+                .flatMap(page -> page.items().stream())
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Loads the given keys with BatchGetItem, 100 keys per request. The result pages re-request
+     * UnprocessedKeys, so missing tasks are simply absent from the returned list.
+     */
+    public List<Task> batchGetTasks(List<Task> keys) {
+        List<Task> tasks = new ArrayList<>();
+        for (int from = 0; from < keys.size(); from += BATCH_GET_SIZE) {
+            ReadBatch.Builder<Task> batch = ReadBatch.builder(Task.class).mappedTableResource(taskTable);
+            keys.subList(from, Math.min(from + BATCH_GET_SIZE, keys.size())).forEach(batch::addGetItem);
+            ReadBatch readBatch = batch.build();
+
+            // Each attempt collects into its own list, so a retry after a failed page doesn't duplicate earlier pages
+            tasks.addAll(resilience.call(() -> enhancedClient.batchGetItem(r -> r.addReadBatch(readBatch))
+                    .resultsForTable(taskTable)
+                    .stream()
+                    .collect(Collectors.toList())));
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns the keys and deadlines of tasks in one deadline bucket whose deadline is at or before {@code now}.
+     */
+    public List<Task> getDueTasks(long deadlineBucket, long now) {
+        return resilience.call(() -> taskTable.index(TaskSchema.DEADLINE_BUCKET_INDEX)
+                .query(r -> r.queryConditional(QueryConditional.sortLessThanOrEqualTo(
+                        k -> k.partitionValue(deadlineBucket).sortValue(now))))
+                .stream()
+                .flatMap(page -> page.items().stream())
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Scans one page of tasks that are missing an index key: userStatus on any task, or deadlineBucket
+     * on a pending task with a deadline. Items written before those attributes existed are invisible
+     * to UserStatusIndex and DeadlineBucketIndex until they are filled in.
+     */
+    public TaskPage scanMissingIndexKeys(String cursor, int limit) {
+        ScanRequest.Builder request = ScanRequest.builder()
+                .tableName(TABLE_NAME)
+                .limit(limit)
+                .filterExpression("attribute_exists(#status) AND (attribute_not_exists(#userStatus) "
+                        + "OR (#status = :pending AND attribute_exists(#deadline) AND attribute_not_exists(#deadlineBucket)))")
+                .projectionExpression("#userId, #taskId, #status, #deadline")
+                .expressionAttributeNames(Map.of(
+                        "#userId", "userId", "#taskId", "taskId", "#status", "status",
+                        "#userStatus", "userStatus", "#deadline", "deadline", "#deadlineBucket", "deadlineBucket"))
+                .expressionAttributeValues(Map.of(":pending", AttributeValue.fromS("Pending")));
+        if (cursor != null) {
+            request.exclusiveStartKey(CursorCodec.decode(cursor));
+        }
+
+        ScanRequest scan = request.build();
+        ScanResponse response = resilience.call(() -> dynamoDbClient.scan(scan));
+        List<Task> tasks = response.items().stream()
+                .map(item -> taskTable.tableSchema().mapToItem(item))
                 .collect(Collectors.toList());
+        return new TaskPage(tasks, CursorCodec.encode(response.lastEvaluatedKey()));
+    }
+
+    /**
+     * Writes the task's userStatus and, when set, deadlineBucket, as long as its status is still the
+     * one they were derived from. Version and updatedAt are left alone: nothing a client sees changes.
+     * Returns false when the task changed or was deleted in the meantime.
+     */
+    public boolean setIndexKeys(Task task) {
+        Map<String, String> names = new HashMap<>(Map.of("#status", "status", "#userStatus", "userStatus"));
+        Map<String, AttributeValue> values = new HashMap<>(Map.of(
+                ":status", AttributeValue.fromS(task.getStatus()),
+                ":userStatus", AttributeValue.fromS(task.getUserStatus())));
+        String updateExpression = "SET #userStatus = :userStatus";
+        if (task.getDeadlineBucket() != null) {
+            names.put("#deadlineBucket", "deadlineBucket");
+            values.put(":deadlineBucket", AttributeValue.fromN(task.getDeadlineBucket().toString()));
+            updateExpression += ", #deadlineBucket = :deadlineBucket";
+        }
+
+        UpdateItemRequest request = UpdateItemRequest.builder()
+                .tableName(TABLE_NAME)
+                .key(Map.of(
+                        "userId", AttributeValue.fromS(task.getUserId()),
+                        "taskId", AttributeValue.fromS(task.getTaskId())))
+                .updateExpression(updateExpression)
+                .conditionExpression("#status = :status")
+                .expressionAttributeNames(names)
+                .expressionAttributeValues(values)
+                .build();
+        try {
+            resilience.run(() -> dynamoDbClient.updateItem(request));
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
     }
 
-    public Task updateTask(Task task) {
-        return taskTable.updateItem(task);
+    /**
+     * Smallest deadline bucket in DeadlineBucketIndex, or null when no pending task has a deadline.
+     * Scans the whole sparse index, so it only runs when the sweeper has no watermark yet.
+     */
+    public Long getOldestDeadlineBucket() {
+        return resilience.call(() -> taskTable.index(TaskSchema.DEADLINE_BUCKET_INDEX)
+                .scan(r -> r.attributesToProject("deadlineBucket"))
+                .stream()
+                .flatMap(page -> page.items().stream())
+                .map(Task::getDeadlineBucket)
+                .min(Long::compare)
+                .orElse(null));
     }
 
-    public void deleteTask(String userId, String taskId) {
-        Key key = Key.builder()
-                .partitionValue(userId)
-                .sortValue(taskId)
+    /**
+     * Last deadline bucket the sweeper has fully processed, or null before the first sweep.
+     */
+    public Long getSweepWatermark() {
+        Map<String, AttributeValue> item = resilience.call(() -> dynamoDbClient.getItem(r -> r
+                .tableName(TABLE_NAME)
+                .key(SWEEPER_STATE_KEY)
+                .consistentRead(true))).item();
+        return item.containsKey("sweptBucket") ? Long.parseLong(item.get("sweptBucket").n()) : null;
+    }
+
+    /**
+     * Moves the sweeper watermark forward to {@code bucket}; a sweep that finished later with an
+     * older watermark never moves it back.
+     */
+    public void advanceSweepWatermark(long bucket) {
+        UpdateItemRequest request = UpdateItemRequest.builder()
+                .tableName(TABLE_NAME)
+                .key(SWEEPER_STATE_KEY)
+                .updateExpression("SET #sweptBucket = :bucket")
+                .conditionExpression("attribute_not_exists(#sweptBucket) OR #sweptBucket < :bucket")
+                .expressionAttributeNames(Map.of("#sweptBucket", "sweptBucket"))
+                .expressionAttributeValues(Map.of(":bucket", AttributeValue.fromN(Long.toString(bucket))))
                 .build();
-        taskTable.deleteItem(key);
+        try {
+            resilience.run(() -> dynamoDbClient.updateItem(request));
+        } catch (ConditionalCheckFailedException e) {
+            // Already at or past this bucket
+        }
     }
 
     public Task getTask(String userId, String taskId) {
-        Key key = Key.builder()
+        Key key = key(userId, taskId);
+        return resilience.call(() -> taskTable.getItem(key));
+    }
+
+    private static Key key(String userId, String taskId) {
+        return Key.builder()
                 .partitionValue(userId)
                 .sortValue(taskId)
                 .build();
-        return taskTable.getItem(key);
     }
 }
\ No newline at end of file
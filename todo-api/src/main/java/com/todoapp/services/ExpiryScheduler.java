@@ -0,0 +1,139 @@
+package com.todoapp.services;
+
+import com.todoapp.models.ExpiryMessage;
+import com.todoapp.models.Task;
+import com.todoapp.utils.JsonUtil;
+import com.todoapp.utils.WorkerPool;
+import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Schedules expiry checks on the expiry queue. SQS caps a message delay at 15 minutes, so a
+ * message carries its target deadline and is re-enqueued with the remaining delay until the
+ * deadline is reached (a hierarchical timer with 15-minute hops). Only the final hop touches DynamoDB.
+ */
+public class ExpiryScheduler {
+    private static final int SEND_BATCH_SIZE = 10;
+    private static final long MAX_DELAY_SECONDS = 900;
+    // Messages arriving less than this before their deadline are treated as due rather than hopping again
+    private static final long DUE_TOLERANCE_MS = 1000;
+
+    private final SqsClient sqsClient;
+    private final String queueUrl;
+    private final Clock clock;
+
+    public ExpiryScheduler(String queueUrl) {
+        this(AwsClients.sqs(), queueUrl, Clock.systemUTC());
+    }
+
+    public ExpiryScheduler(SqsClient sqsClient, String queueUrl, Clock clock) {
+        this.sqsClient = sqsClient;
+        this.queueUrl = queueUrl;
+        this.clock = clock;
+    }
+
+    /**
+     * Enqueues expiry checks for the given tasks. Tasks are keyed by a caller-chosen id; the ids
+     * whose message could not be sent are returned.
+     */
+    public Set<String> schedule(Map<String, Task> tasks) {
+        Map<String, ExpiryMessage> messages = new LinkedHashMap<>();
+        for (Map.Entry<String, Task> entry : tasks.entrySet()) {
+            Task task = entry.getValue();
+            messages.put(entry.getKey(), new ExpiryMessage(
+                    task.getUserId(), task.getTaskId(), task.getUserEmail(), task.getDeadline()));
+        }
+        return enqueue(messages);
+    }
+
+    /**
+     * Sends the next hop for messages that arrived before their deadline. Same contract as {@link #schedule}.
+     */
+    public Set<String> reschedule(Map<String, ExpiryMessage> messages) {
+        return enqueue(messages);
+    }
+
+    public boolean isDue(ExpiryMessage message) {
+        // Messages from before deadline-carrying hops have no deadline and are always due
+        return message.getDeadline() == null || isDue(message.getDeadline());
+    }
+
+    public boolean isDue(long deadline) {
+        return deadline - clock.millis() < DUE_TOLERANCE_MS;
+    }
+
+    long delaySeconds(ExpiryMessage message) {
+        if (message.getDeadline() == null) {
+            return 0;
+        }
+        long remainingMs = message.getDeadline() - clock.millis();
+        if (remainingMs <= 0) {
+            return 0;
+        }
+        // Round up so a hop never lands just short of the deadline
+        return Math.min((remainingMs + 999) / 1000, MAX_DELAY_SECONDS);
+    }
+
+    private Set<String> enqueue(Map<String, ExpiryMessage> messages) {
+        List<String> ids = new ArrayList<>(messages.keySet());
+        List<CompletableFuture<Set<String>>> futures = new ArrayList<>();
+
+        for (int from = 0; from < ids.size(); from += SEND_BATCH_SIZE) {
+            List<String> chunk = ids.subList(from, Math.min(from + SEND_BATCH_SIZE, ids.size()));
+            futures.add(CompletableFuture.supplyAsync(() -> sendChunk(chunk, messages), WorkerPool.executor()));
+        }
+
+        Set<String> failed = new HashSet<>();
+        for (CompletableFuture<Set<String>> future : futures) {
+            failed.addAll(future.join());
+        }
+        return failed;
+    }
+
+    private Set<String> sendChunk(List<String> ids, Map<String, ExpiryMessage> messages) {
+        List<SendMessageBatchRequestEntry> entries = new ArrayList<>();
+        Set<String> failed = new HashSet<>();
+
+        for (int i = 0; i < ids.size(); i++) {
+            try {
+                entries.add(toEntry(Integer.toString(i), messages.get(ids.get(i))));
+            } catch (Exception e) {
+                failed.add(ids.get(i));
+            }
+        }
+        if (entries.isEmpty()) {
+            return failed;
+        }
+
+        try {
+            SendMessageBatchResponse response = sqsClient.sendMessageBatch(r -> r.queueUrl(queueUrl).entries(entries));
+            for (BatchResultErrorEntry error : response.failed()) {
+                failed.add(ids.get(Integer.parseInt(error.id())));
+            }
+        } catch (Exception e) {
+            for (SendMessageBatchRequestEntry entry : entries) {
+                failed.add(ids.get(Integer.parseInt(entry.id())));
+            }
+        }
+        return failed;
+    }
+
+    private SendMessageBatchRequestEntry toEntry(String entryId, ExpiryMessage message) {
+        return SendMessageBatchRequestEntry.builder()
+                .id(entryId)
+                .messageBody(JsonUtil.toJson(message))
+                .delaySeconds((int) delaySeconds(message))
+                .build();
+    }
+}
@@ -1,20 +1,50 @@
 package com.todoapp.services;
 
 import software.amazon.awssdk.services.sns.SnsClient;
+import software.amazon.awssdk.services.sns.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sns.model.InvalidParameterException;
+import software.amazon.awssdk.services.sns.model.ListSubscriptionsByTopicResponse;
+import software.amazon.awssdk.services.sns.model.MessageAttributeValue;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequestEntry;
+import software.amazon.awssdk.services.sns.model.PublishBatchResponse;
 import software.amazon.awssdk.services.sns.model.PublishRequest;
 import software.amazon.awssdk.services.sns.model.SubscribeRequest;
-import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.sns.model.Subscription;
+import com.todoapp.metrics.Metrics;
+import com.todoapp.metrics.Unit;
 import com.todoapp.models.Task;
+import com.todoapp.utils.JsonUtil;
+import com.todoapp.utils.WorkerPool;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class NotificationService {
+    private static final String SUBJECT = "Task Expiry Notification";
+    private static final int PUBLISH_BATCH_SIZE = 10;
+    // PublishBatch caps the whole request at 256 KiB; leave room for attributes and request overhead
+    private static final int PUBLISH_BATCH_MAX_BYTES = 240 * 1024;
+    private static final int DIGEST_MAX_TASKS = 50;
+    private static final String EMAIL_ATTRIBUTE = "email";
+
     private final SnsClient snsClient;
     private final String topicArn;
+    private final boolean digest;
 
     public NotificationService(String topicArn) {
-        this.snsClient = SnsClient.builder()
-                .region(Region.EU_CENTRAL_1)
-                .build();
+        // "single" keeps one Publish per expired task; anything else sends per-user digests
+        this(AwsClients.sns(), topicArn, !"single".equals(System.getenv("NOTIFICATION_MODE")));
+    }
+
+    public NotificationService(SnsClient snsClient, String topicArn, boolean digest) {
+        this.snsClient = snsClient;
         this.topicArn = topicArn;
+        this.digest = digest;
     }
 
     public void subscribeUser(String email) {
@@ -22,23 +52,186 @@ public class NotificationService {
                 .topicArn(topicArn)
                 .protocol("email")
                 .endpoint(email)
+                .attributes(Map.of("FilterPolicy", filterPolicy(email)))
                 .build();
-        snsClient.subscribe(subscribeRequest);
+        try {
+            snsClient.subscribe(subscribeRequest);
+        } catch (InvalidParameterException e) {
+            // The address already has a subscription without this policy: Subscribe is only idempotent
+            // for identical attributes, so look it up and set the policy on it instead
+            String subscriptionArn = snsClient.subscribe(r -> r
+                    .topicArn(topicArn)
+                    .protocol("email")
+                    .endpoint(email)
+                    .returnSubscriptionArn(true)).subscriptionArn();
+            setFilterPolicy(subscriptionArn, email);
+        }
     }
 
-    public void sendTaskExpiryNotification(Task task, String userEmail) {
-        String message = String.format(
-                "Task Expired: %s\nDescription: %s\nDate: %s\nDeadline: %s",
-                task.getTaskId(), task.getDescription(), task.getDate(),
-                new java.util.Date(task.getDeadline()).toString()
-        );
+    public ListSubscriptionsByTopicResponse listSubscriptions(String nextToken) {
+        return snsClient.listSubscriptionsByTopic(r -> r.topicArn(topicArn).nextToken(nextToken));
+    }
+
+    /**
+     * Sets the recipient filter policy on email subscriptions made before subscribeUser set it.
+     * Subscriptions still pending confirmation have no ARN to update yet and are skipped. Returns the
+     * number of subscriptions updated.
+     */
+    public int setFilterPolicies(List<Subscription> subscriptions) {
+        List<CompletableFuture<Void>> updates = new ArrayList<>();
+        for (Subscription subscription : subscriptions) {
+            if (!"email".equals(subscription.protocol()) || !subscription.subscriptionArn().startsWith("arn:")) {
+                continue;
+            }
+            updates.add(CompletableFuture.runAsync(
+                    () -> setFilterPolicy(subscription.subscriptionArn(), subscription.endpoint()), WorkerPool.executor()));
+        }
+        updates.forEach(CompletableFuture::join);
+        return updates.size();
+    }
+
+    private void setFilterPolicy(String subscriptionArn, String email) {
+        snsClient.setSubscriptionAttributes(r -> r
+                .subscriptionArn(subscriptionArn)
+                .attributeName("FilterPolicy")
+                .attributeValue(filterPolicy(email)));
+    }
 
+    public void sendTaskExpiryNotification(Task task, String userEmail) {
         PublishRequest publishRequest = PublishRequest.builder()
                 .topicArn(topicArn)
-                .message(message)
-                .subject("Task Expiry Notification")
+                .message(appendTask(new StringBuilder(256), task).toString())
+                .subject(SUBJECT)
+                .messageAttributes(emailAttribute(userEmail))
                 .build();
 
         snsClient.publish(publishRequest);
     }
-}
\ No newline at end of file
+
+    /**
+     * Notifies the owners of the given expired tasks. In digest mode the tasks of one user are merged
+     * into a single message and messages are sent through PublishBatch; otherwise each task is
+     * published on its own. Returns the number of tasks whose notification could not be sent.
+     */
+    public int sendTaskExpiryNotifications(List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return 0;
+        }
+        return digest ? sendDigests(tasks) : sendEach(tasks);
+    }
+
+    private int sendEach(List<Task> tasks) {
+        List<CompletableFuture<Void>> sends = new ArrayList<>();
+        for (Task task : tasks) {
+            sends.add(CompletableFuture.runAsync(
+                    () -> sendTaskExpiryNotification(task, task.getUserEmail()), WorkerPool.executor()));
+        }
+        int failed = 0;
+        for (CompletableFuture<Void> send : sends) {
+            try {
+                send.join();
+            } catch (Exception e) {
+                failed++;
+            }
+        }
+        Metrics.add("Notifications", Unit.COUNT, tasks.size() - failed);
+        return failed;
+    }
+
+    private int sendDigests(List<Task> tasks) {
+        Map<String, List<Task>> tasksByUser = new LinkedHashMap<>();
+        for (Task task : tasks) {
+            String user = task.getUserEmail() != null ? task.getUserEmail() : task.getUserId();
+            tasksByUser.computeIfAbsent(user, k -> new ArrayList<>()).add(task);
+        }
+
+        // Entry ids are indexes into digests so failures map back to their tasks
+        List<List<Task>> digests = new ArrayList<>(tasksByUser.values());
+        List<List<PublishBatchRequestEntry>> batches = new ArrayList<>();
+        List<PublishBatchRequestEntry> batch = new ArrayList<>();
+        int batchBytes = 0;
+        for (int i = 0; i < digests.size(); i++) {
+            PublishBatchRequestEntry entry = digestEntry(String.valueOf(i), digests.get(i));
+            int entryBytes = entry.message().getBytes(StandardCharsets.UTF_8).length + entry.subject().length();
+            if (batch.size() == PUBLISH_BATCH_SIZE || (!batch.isEmpty() && batchBytes + entryBytes > PUBLISH_BATCH_MAX_BYTES)) {
+                batches.add(batch);
+                batch = new ArrayList<>();
+                batchBytes = 0;
+            }
+            batch.add(entry);
+            batchBytes += entryBytes;
+        }
+        batches.add(batch);
+
+        List<CompletableFuture<PublishBatchResponse>> sends = new ArrayList<>();
+        for (List<PublishBatchRequestEntry> entries : batches) {
+            sends.add(CompletableFuture.supplyAsync(
+                    () -> snsClient.publishBatch(r -> r.topicArn(topicArn).publishBatchRequestEntries(entries)),
+                    WorkerPool.executor()));
+        }
+
+        int failedTasks = 0;
+        int sent = 0;
+        for (int b = 0; b < sends.size(); b++) {
+            try {
+                PublishBatchResponse response = sends.get(b).join();
+                sent += response.successful().size();
+                for (BatchResultErrorEntry failure : response.failed()) {
+                    failedTasks += digests.get(Integer.parseInt(failure.id())).size();
+                }
+            } catch (Exception e) {
+                for (PublishBatchRequestEntry entry : batches.get(b)) {
+                    failedTasks += digests.get(Integer.parseInt(entry.id())).size();
+                }
+            }
+        }
+        Metrics.add("Notifications", Unit.COUNT, sent);
+        return failedTasks;
+    }
+
+    private PublishBatchRequestEntry digestEntry(String id, List<Task> tasks) {
+        StringBuilder message = new StringBuilder(256 * Math.min(tasks.size(), DIGEST_MAX_TASKS));
+        if (tasks.size() > 1) {
+            message.append(tasks.size()).append(" of your tasks expired:\n\n");
+        }
+        int shown = Math.min(tasks.size(), DIGEST_MAX_TASKS);
+        for (int i = 0; i < shown; i++) {
+            if (i > 0) {
+                message.append("\n\n");
+            }
+            appendTask(message, tasks.get(i));
+        }
+        if (tasks.size() > shown) {
+            message.append("\n\n...and ").append(tasks.size() - shown).append(" more");
+        }
+
+        return PublishBatchRequestEntry.builder()
+                .id(id)
+                .message(message.toString())
+                .subject(tasks.size() > 1 ? tasks.size() + " tasks expired" : SUBJECT)
+                .messageAttributes(emailAttribute(tasks.get(0).getUserEmail()))
+                .build();
+    }
+
+    private static StringBuilder appendTask(StringBuilder message, Task task) {
+        message.append("Task Expired: ").append(task.getTaskId())
+                .append("\nDescription: ").append(task.getDescription())
+                .append("\nDate: ").append(task.getDate())
+                .append("\nDeadline: ").append(task.getDeadline() != null ? Instant.ofEpochMilli(task.getDeadline()) : null);
+        return message;
+    }
+
+    // Each subscription only receives messages whose email attribute is its own address
+    static String filterPolicy(String email) {
+        return JsonUtil.mapper().createObjectNode()
+                .set(EMAIL_ATTRIBUTE, JsonUtil.mapper().createArrayNode().add(email))
+                .toString();
+    }
+
+    private static Map<String, MessageAttributeValue> emailAttribute(String email) {
+        if (email == null) {
+            return Map.of();
+        }
+        return Map.of(EMAIL_ATTRIBUTE, MessageAttributeValue.builder().dataType("String").stringValue(email).build());
+    }
+}
@@ -1,32 +1,267 @@
 package com.todoapp.services;
 
+import com.todoapp.exceptions.SyncTokenExpiredException;
+import com.todoapp.metrics.Metrics;
+import com.todoapp.metrics.Unit;
 import com.todoapp.models.Task;
+import com.todoapp.models.TaskChanges;
+import com.todoapp.models.TaskListing;
+import com.todoapp.models.TaskPage;
+import com.todoapp.models.TaskQuery;
+import com.todoapp.models.TaskSchema;
+import com.todoapp.models.Tombstone;
+import com.todoapp.utils.JsonUtil;
+import com.todoapp.utils.LruCache;
+import com.todoapp.utils.SyncToken;
+import com.todoapp.utils.WorkerPool;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class TaskService {
+    private static final long DEADLINE_BUCKET_MS = 60 * 1000;
+    private static final long DEFAULT_CACHE_TTL_SECONDS = 5;
+    private static final long DEFAULT_CACHE_MAX_BYTES = 16 * 1024 * 1024;
+    // Deletes are reported to delta syncs for this long; older sync tokens must start over
+    private static final long TOMBSTONE_RETENTION_MS = 30L * 24 * 60 * 60 * 1000;
+    // Each sync re-reads this window: a write is stamped before it is sent, so with retries it can
+    // land up to a function timeout later, and UserUpdatedIndex lags the table a little beyond that
+    private static final long SYNC_OVERLAP_MS = 35 * 1000;
+
     private final DynamoDBService dynamoDBService;
+    // Serialized GET /tasks bodies per warm container, keyed by "userId\nquery"
+    private final LruCache<String, TaskListing> listingCache;
 
     public TaskService() {
-        this.dynamoDBService = new DynamoDBService();
+        this(new DynamoDBService());
+    }
+
+    public TaskService(DynamoDBService dynamoDBService) {
+        this.dynamoDBService = dynamoDBService;
+        this.listingCache = new LruCache<>(
+                envLong("TASK_CACHE_MAX_BYTES", DEFAULT_CACHE_MAX_BYTES),
+                envLong("TASK_CACHE_TTL_SECONDS", DEFAULT_CACHE_TTL_SECONDS) * 1000,
+                listing -> listing.getBody().length,
+                Clock.systemUTC());
     }
 
     public Task createTask(Task task) {
-        return dynamoDBService.createTask(task);
+        assignIndexKeys(task);
+        task.setUpdatedAt(System.currentTimeMillis());
+        Task created = dynamoDBService.createTask(task);
+        invalidateListings(task.getUserId());
+        return created;
+    }
+
+    /**
+     * Returns the serialized GET /tasks body for the query, served from the per-container cache
+     * when possible. Unpaginated queries keep the legacy plain-array shape.
+     */
+    public TaskListing listTasks(String userId, TaskQuery query) {
+        String cacheKey = userId + "\n" + query.cacheKey();
+        TaskListing cached = listingCache.get(cacheKey);
+        if (cached != null) {
+            Metrics.add("ListingCacheHits", Unit.COUNT, 1);
+            return cached;
+        }
+
+        TaskPage page = dynamoDBService.getTasksByUser(userId, query);
+        byte[] body = JsonUtil.toJsonBytes(query.isPaginated() ? page : page.getTasks());
+        TaskListing listing = new TaskListing(body, strongEtag(body), page.getTasks().size());
+        listingCache.put(cacheKey, listing);
+        return listing;
     }
 
     public List<Task> getTasksByUser(String userId) {
         return dynamoDBService.getTasksByUser(userId);
     }
 
-    public Task updateTask(Task task) {
-        return dynamoDBService.updateTask(task);
+    public TaskPage getTasksByUser(String userId, TaskQuery query) {
+        return dynamoDBService.getTasksByUser(userId, query);
+    }
+
+    public Task updateTask(Task changes, Long expectedVersion) {
+        changes.setUpdatedAt(System.currentTimeMillis());
+        Task updated = dynamoDBService.updateTaskAttributes(changes, expectedVersion);
+        invalidateListings(changes.getUserId());
+        return updated;
+    }
+
+    public Task expireTask(String userId, String taskId) {
+        Task expired = dynamoDBService.expireTask(userId, taskId, System.currentTimeMillis());
+        invalidateListings(userId);
+        return expired;
+    }
+
+    public List<Task> getTasks(List<Task> keys) {
+        return dynamoDBService.batchGetTasks(keys);
+    }
+
+    /**
+     * Ids among {@code keys} of tasks that don't exist, so a batch delete can report them instead of
+     * writing a tombstone that delta syncs would replay for a task no client ever had.
+     */
+    public Set<String> missingTaskIds(List<Task> keys) {
+        Set<String> missing = new HashSet<>();
+        keys.forEach(key -> missing.add(key.getTaskId()));
+        dynamoDBService.batchGetTasks(keys).forEach(task -> missing.remove(task.getTaskId()));
+        return missing;
+    }
+
+    public Set<String> batchWriteTasks(List<Task> creates, List<Task> deletes) {
+        long now = System.currentTimeMillis();
+        creates.forEach(task -> {
+            assignIndexKeys(task);
+            task.setUpdatedAt(now);
+        });
+        List<Tombstone> tombstones = new ArrayList<>(deletes.size());
+        deletes.forEach(task -> tombstones.add(tombstone(task.getUserId(), task.getTaskId(), now)));
+        Set<String> failed = dynamoDBService.batchWriteTasks(creates, tombstones);
+        creates.forEach(task -> invalidateListings(task.getUserId()));
+        deletes.forEach(task -> invalidateListings(task.getUserId()));
+        return failed;
     }
 
     public void deleteTask(String userId, String taskId) {
-        dynamoDBService.deleteTask(userId, taskId);
+        dynamoDBService.deleteTask(tombstone(userId, taskId, System.currentTimeMillis()));
+        invalidateListings(userId);
+    }
+
+    /**
+     * Returns what changed for the user since the sync that issued {@code token}: tasks created or
+     * updated, and tasks deleted. Without a token every task is returned, which starts a sync.
+     * Changes near the token's time may be reported again, so clients apply them by taskId and version.
+     */
+    public TaskChanges syncTasks(String userId, String token) {
+        long now = System.currentTimeMillis();
+        if (token == null) {
+            List<Task> tasks = dynamoDBService.getTasksByUser(userId);
+            return new TaskChanges(tasks, List.of(), SyncToken.encode(now - SYNC_OVERLAP_MS));
+        }
+
+        long since = SyncToken.decode(token);
+        if (since < now - TOMBSTONE_RETENTION_MS) {
+            throw new SyncTokenExpiredException();
+        }
+        CompletableFuture<List<Tombstone>> deleted = CompletableFuture.supplyAsync(
+                () -> dynamoDBService.getTombstonesSince(userId, since), WorkerPool.executor());
+        List<Task> tasks = dynamoDBService.getTasksUpdatedSince(userId, since);
+        try {
+            return new TaskChanges(tasks, deleted.join(), SyncToken.encode(Math.max(since, now - SYNC_OVERLAP_MS)));
+        } catch (CompletionException e) {
+            // Keep the cause's type so e.g. ServiceUnavailableException still maps to 503
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * First deadline bucket the next sweep has to query: the bucket after the persisted watermark, or
+     * the oldest non-empty bucket before the first sweep. It is never later than {@code lookbackMinutes}
+     * ago, so tasks whose index entry lagged behind an earlier sweep are still found.
+     */
+    public long sweepStartBucket(long now, int lookbackMinutes) {
+        long lookbackStart = deadlineBucket(now) - lookbackMinutes;
+        Long watermark = dynamoDBService.getSweepWatermark();
+        Long start = watermark != null ? Long.valueOf(watermark + 1) : dynamoDBService.getOldestDeadlineBucket();
+        return start != null ? Math.min(start, lookbackStart) : lookbackStart;
+    }
+
+    /**
+     * Queries the minute buckets {@code fromBucket} to {@code toBucket} in parallel and returns the
+     * keys of every task whose deadline is at or before {@code now}.
+     */
+    public List<Task> getDueTasks(long now, long fromBucket, long toBucket) {
+        List<CompletableFuture<List<Task>>> queries = new ArrayList<>();
+        for (long bucket = fromBucket; bucket <= toBucket; bucket++) {
+            long deadlineBucket = bucket;
+            queries.add(CompletableFuture.supplyAsync(
+                    () -> dynamoDBService.getDueTasks(deadlineBucket, now), WorkerPool.executor()));
+        }
+
+        List<Task> due = new ArrayList<>();
+        for (CompletableFuture<List<Task>> query : queries) {
+            due.addAll(query.join());
+        }
+        return due;
+    }
+
+    /**
+     * Fills in the missing index keys of one scanned page of tasks. Returns the tasks that were
+     * updated, with the cursor of the next page, or a null cursor once the table has been covered.
+     */
+    public TaskPage backfillIndexKeys(String cursor, int pageSize) {
+        TaskPage page = dynamoDBService.scanMissingIndexKeys(cursor, pageSize);
+        long now = System.currentTimeMillis();
+
+        List<CompletableFuture<Boolean>> updates = new ArrayList<>();
+        for (Task task : page.getTasks()) {
+            task.setUserStatus(TaskSchema.userStatus(task.getUserId(), task.getStatus()));
+            if ("Pending".equals(task.getStatus()) && task.getDeadline() != null) {
+                task.setDeadlineBucket(deadlineBucket(Math.max(task.getDeadline(), now)));
+            }
+            updates.add(CompletableFuture.supplyAsync(() -> dynamoDBService.setIndexKeys(task), WorkerPool.executor()));
+        }
+
+        // A task whose status changed in the meantime got its keys from that write
+        List<Task> updated = new ArrayList<>();
+        for (int i = 0; i < updates.size(); i++) {
+            if (updates.get(i).join()) {
+                updated.add(page.getTasks().get(i));
+            }
+        }
+        return new TaskPage(updated, page.getNextCursor());
+    }
+
+    public void advanceSweepWatermark(long bucket) {
+        dynamoDBService.advanceSweepWatermark(bucket);
+    }
+
+    public static long deadlineBucket(long millis) {
+        return millis / DEADLINE_BUCKET_MS;
     }
 
     public Task getTask(String userId, String taskId) {
         return dynamoDBService.getTask(userId, taskId);
     }
+
+    // Writes from other containers are only bounded by the cache TTL
+    private void invalidateListings(String userId) {
+        String prefix = userId + "\n";
+        listingCache.invalidateIf(key -> key.startsWith(prefix));
+    }
+
+    private String strongEtag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + "\"";
+        } catch (Exception e) {
+            throw new RuntimeException("Error computing ETag", e);
+        }
+    }
+
+    private static Tombstone tombstone(String userId, String taskId, long deletedAt) {
+        // TTL attributes are epoch seconds
+        return new Tombstone(userId, taskId, deletedAt, (deletedAt + TOMBSTONE_RETENTION_MS) / 1000);
+    }
+
+    private static long envLong(String name, long defaultValue) {
+        String value = System.getenv(name);
+        return value != null ? Long.parseLong(value) : defaultValue;
+    }
+
+    private void assignIndexKeys(Task task) {
+        if (task.getDeadline() != null) {
+            // A deadline already in the past goes into the current bucket, which no sweep has completed yet
+            task.setDeadlineBucket(deadlineBucket(Math.max(task.getDeadline(), System.currentTimeMillis())));
+        }
+        if (task.getStatus() != null) {
+            task.setUserStatus(TaskSchema.userStatus(task.getUserId(), task.getStatus()));
+        }
+    }
 }
\ No newline at end of file
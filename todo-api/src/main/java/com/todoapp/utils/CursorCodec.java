@@ -0,0 +1,92 @@
+package com.todoapp.utils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Turns a DynamoDB LastEvaluatedKey into an opaque, URL-safe continuation token and back.
+ * Only string and number key attributes are supported, which covers every key in TodoTasks.
+ * A token can be bound to a scope, e.g. the index and key condition it came from, and is then
+ * rejected by any other scope instead of reaching DynamoDB as a start key it cannot use.
+ */
+public class CursorCodec {
+    private static final TypeReference<Map<String, Map<String, String>>> CURSOR_TYPE = new TypeReference<>() {};
+    // Not a valid DynamoDB attribute name, so it can't collide with a key attribute
+    private static final String SCOPE_ENTRY = "";
+
+    public static String encode(Map<String, AttributeValue> lastEvaluatedKey) {
+        return encode(lastEvaluatedKey, null);
+    }
+
+    public static String encode(Map<String, AttributeValue> lastEvaluatedKey, String scope) {
+        if (lastEvaluatedKey == null || lastEvaluatedKey.isEmpty()) {
+            return null;
+        }
+
+        Map<String, Map<String, String>> cursor = new LinkedHashMap<>();
+        if (scope != null) {
+            cursor.put(SCOPE_ENTRY, Map.of("S", scope));
+        }
+        for (Map.Entry<String, AttributeValue> entry : lastEvaluatedKey.entrySet()) {
+            AttributeValue value = entry.getValue();
+            if (value.s() != null) {
+                cursor.put(entry.getKey(), Map.of("S", value.s()));
+            } else if (value.n() != null) {
+                cursor.put(entry.getKey(), Map.of("N", value.n()));
+            } else {
+                throw new IllegalStateException("Unsupported key attribute type: " + entry.getKey());
+            }
+        }
+
+        try {
+            byte[] json = JsonUtil.mapper().writeValueAsBytes(cursor);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (Exception e) {
+            throw new RuntimeException("Error encoding cursor", e);
+        }
+    }
+
+    public static Map<String, AttributeValue> decode(String token) {
+        return decode(token, null);
+    }
+
+    /**
+     * Decodes a token issued for {@code scope}; a malformed token or one from another scope is an
+     * IllegalArgumentException.
+     */
+    public static Map<String, AttributeValue> decode(String token, String scope) {
+        Map<String, Map<String, String>> cursor;
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(token);
+            cursor = JsonUtil.mapper().readValue(new String(json, StandardCharsets.UTF_8), CURSOR_TYPE);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (cursor == null) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        Map<String, String> tokenScope = cursor.remove(SCOPE_ENTRY);
+        if (!Objects.equals(scope, tokenScope != null ? tokenScope.get("S") : null)) {
+            throw new IllegalArgumentException("Cursor belongs to a different query");
+        }
+
+        Map<String, AttributeValue> key = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, String>> entry : cursor.entrySet()) {
+            Map<String, String> value = entry.getValue();
+            if (value != null && value.get("S") != null) {
+                key.put(entry.getKey(), AttributeValue.fromS(value.get("S")));
+            } else if (value != null && value.get("N") != null) {
+                key.put(entry.getKey(), AttributeValue.fromN(value.get("N")));
+            } else {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+        return key;
+    }
+}
@@ -3,7 +3,11 @@ package com.todoapp.utils;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 public class JsonUtil {
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ObjectMapper objectMapper = new ObjectMapper().registerModule(ModelCodecs.module());
+
+    public static ObjectMapper mapper() {
+        return objectMapper;
+    }
 
     public static String toJson(Object obj) {
         try {
@@ -13,6 +17,14 @@ public class JsonUtil {
         }
     }
 
+    public static byte[] toJsonBytes(Object obj) {
+        try {
+            return objectMapper.writeValueAsBytes(obj);
+        } catch (Exception e) {
+            throw new RuntimeException("Error converting object to JSON", e);
+        }
+    }
+
     public static <T> T fromJson(String json, Class<T> clazz) {
         try {
             return objectMapper.readValue(json, clazz);
@@ -0,0 +1,76 @@
+package com.todoapp.utils;
+
+import java.time.Clock;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Small synchronized LRU cache bounded by total entry weight, with a fixed time-to-live per entry.
+ * Intended for per-container caching inside a warm Lambda, so contention is not a concern.
+ */
+public class LruCache<K, V> {
+    private final long maxWeight;
+    private final long ttlMillis;
+    private final ToLongFunction<V> weigher;
+    private final Clock clock;
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalWeight;
+
+    public LruCache(long maxWeight, long ttlMillis, ToLongFunction<V> weigher, Clock clock) {
+        this.maxWeight = maxWeight;
+        this.ttlMillis = ttlMillis;
+        this.weigher = weigher;
+        this.clock = clock;
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (clock.millis() >= entry.expiresAt) {
+            remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    public synchronized void put(K key, V value) {
+        long weight = weigher.applyAsLong(value);
+        if (ttlMillis <= 0 || weight > maxWeight) {
+            return;
+        }
+        remove(key);
+        entries.put(key, new Entry<>(value, weight, clock.millis() + ttlMillis));
+        totalWeight += weight;
+
+        Iterator<Map.Entry<K, Entry<V>>> eldest = entries.entrySet().iterator();
+        while (totalWeight > maxWeight && eldest.hasNext()) {
+            totalWeight -= eldest.next().getValue().weight;
+            eldest.remove();
+        }
+    }
+
+    public synchronized void invalidateIf(Predicate<K> predicate) {
+        Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<K, Entry<V>> entry = iterator.next();
+            if (predicate.test(entry.getKey())) {
+                totalWeight -= entry.getValue().weight;
+                iterator.remove();
+            }
+        }
+    }
+
+    private void remove(K key) {
+        Entry<V> removed = entries.remove(key);
+        if (removed != null) {
+            totalWeight -= removed.weight;
+        }
+    }
+
+    private record Entry<V>(V value, long weight, long expiresAt) {}
+}
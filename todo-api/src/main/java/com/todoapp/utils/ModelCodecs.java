@@ -0,0 +1,342 @@
+package com.todoapp.utils;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.todoapp.models.BatchOperation;
+import com.todoapp.models.BatchOperationResult;
+import com.todoapp.models.BatchTaskRequest;
+import com.todoapp.models.CreateTaskRequest;
+import com.todoapp.models.ExpiryMessage;
+import com.todoapp.models.Task;
+import com.todoapp.models.TaskChanges;
+import com.todoapp.models.TaskPage;
+import com.todoapp.models.Tombstone;
+import com.todoapp.models.UpdateTaskRequest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming Jackson codecs for the model classes. Registering these means the ObjectMapper
+ * never falls back to bean introspection for our own types. Null properties are omitted on
+ * write and unknown properties are skipped on read.
+ */
+public final class ModelCodecs {
+
+    private ModelCodecs() {}
+
+    public static SimpleModule module() {
+        SimpleModule module = new SimpleModule("ModelCodecs");
+        module.addSerializer(Task.class, new TaskSerializer());
+        module.addDeserializer(Task.class, new TaskDeserializer());
+        module.addSerializer(TaskPage.class, new TaskPageSerializer());
+        module.addSerializer(TaskChanges.class, new TaskChangesSerializer());
+        module.addDeserializer(CreateTaskRequest.class, new CreateTaskRequestDeserializer());
+        module.addDeserializer(UpdateTaskRequest.class, new UpdateTaskRequestDeserializer());
+        module.addDeserializer(BatchOperation.class, new BatchOperationDeserializer());
+        module.addDeserializer(BatchTaskRequest.class, new BatchTaskRequestDeserializer());
+        module.addSerializer(BatchOperationResult.class, new BatchOperationResultSerializer());
+        module.addSerializer(ExpiryMessage.class, new ExpiryMessageSerializer());
+        module.addDeserializer(ExpiryMessage.class, new ExpiryMessageDeserializer());
+        return module;
+    }
+
+    public static void writeTask(JsonGenerator gen, Task task) throws IOException {
+        gen.writeStartObject();
+        writeString(gen, "taskId", task.getTaskId());
+        writeString(gen, "userId", task.getUserId());
+        writeString(gen, "userEmail", task.getUserEmail());
+        writeString(gen, "description", task.getDescription());
+        writeString(gen, "date", task.getDate());
+        writeString(gen, "status", task.getStatus());
+        writeLong(gen, "deadline", task.getDeadline());
+        writeLong(gen, "createdAt", task.getCreatedAt());
+        writeLong(gen, "updatedAt", task.getUpdatedAt());
+        writeLong(gen, "version", task.getVersion());
+        gen.writeEndObject();
+    }
+
+    private static void writeString(JsonGenerator gen, String name, String value) throws IOException {
+        if (value != null) {
+            gen.writeStringField(name, value);
+        }
+    }
+
+    private static void writeLong(JsonGenerator gen, String name, Long value) throws IOException {
+        if (value != null) {
+            gen.writeNumberField(name, value);
+        }
+    }
+
+    private static Long readLong(JsonParser p) throws IOException {
+        return p.currentToken() == JsonToken.VALUE_NULL ? null : p.getValueAsLong();
+    }
+
+    private abstract static class ObjectDeserializer<T> extends StdDeserializer<T> {
+        protected ObjectDeserializer(Class<T> type) {
+            super(type);
+        }
+
+        protected abstract T newInstance();
+
+        protected abstract void readField(T target, String name, JsonParser p,
+                                          DeserializationContext ctxt) throws IOException;
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.currentToken() != JsonToken.START_OBJECT) {
+                return (T) ctxt.handleUnexpectedToken(handledType(), p);
+            }
+            T target = newInstance();
+            for (JsonToken token = p.nextToken(); token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+                String name = p.currentName();
+                p.nextToken();
+                readField(target, name, p, ctxt);
+            }
+            return target;
+        }
+    }
+
+    private static class TaskSerializer extends StdSerializer<Task> {
+        TaskSerializer() {
+            super(Task.class);
+        }
+
+        @Override
+        public void serialize(Task task, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            writeTask(gen, task);
+        }
+    }
+
+    private static class TaskDeserializer extends ObjectDeserializer<Task> {
+        TaskDeserializer() {
+            super(Task.class);
+        }
+
+        @Override
+        protected Task newInstance() {
+            return new Task();
+        }
+
+        @Override
+        protected void readField(Task task, String name, JsonParser p, DeserializationContext ctxt) throws IOException {
+            switch (name) {
+                case "taskId" -> task.setTaskId(p.getValueAsString());
+                case "userId" -> task.setUserId(p.getValueAsString());
+                case "userEmail" -> task.setUserEmail(p.getValueAsString());
+                case "description" -> task.setDescription(p.getValueAsString());
+                case "date" -> task.setDate(p.getValueAsString());
+                case "status" -> task.setStatus(p.getValueAsString());
+                case "deadline" -> task.setDeadline(readLong(p));
+                case "createdAt" -> task.setCreatedAt(readLong(p));
+                case "updatedAt" -> task.setUpdatedAt(readLong(p));
+                case "version" -> task.setVersion(readLong(p));
+                default -> p.skipChildren();
+            }
+        }
+    }
+
+    private static class TaskPageSerializer extends StdSerializer<TaskPage> {
+        TaskPageSerializer() {
+            super(TaskPage.class);
+        }
+
+        @Override
+        public void serialize(TaskPage page, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            gen.writeArrayFieldStart("tasks");
+            if (page.getTasks() != null) {
+                for (Task task : page.getTasks()) {
+                    writeTask(gen, task);
+                }
+            }
+            gen.writeEndArray();
+            // nextCursor is always present so clients can test it for null to detect the last page
+            gen.writeStringField("nextCursor", page.getNextCursor());
+            gen.writeEndObject();
+        }
+    }
+
+    private static class TaskChangesSerializer extends StdSerializer<TaskChanges> {
+        TaskChangesSerializer() {
+            super(TaskChanges.class);
+        }
+
+        @Override
+        public void serialize(TaskChanges changes, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            gen.writeArrayFieldStart("tasks");
+            for (Task task : changes.getTasks()) {
+                writeTask(gen, task);
+            }
+            gen.writeEndArray();
+            gen.writeArrayFieldStart("deleted");
+            for (Tombstone tombstone : changes.getDeleted()) {
+                gen.writeStartObject();
+                writeString(gen, "taskId", tombstone.getTaskId());
+                writeLong(gen, "deletedAt", tombstone.getDeletedAt());
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+            gen.writeStringField("nextToken", changes.getNextToken());
+            gen.writeEndObject();
+        }
+    }
+
+    private static class CreateTaskRequestDeserializer extends ObjectDeserializer<CreateTaskRequest> {
+        CreateTaskRequestDeserializer() {
+            super(CreateTaskRequest.class);
+        }
+
+        @Override
+        protected CreateTaskRequest newInstance() {
+            return new CreateTaskRequest();
+        }
+
+        @Override
+        protected void readField(CreateTaskRequest request, String name, JsonParser p,
+                                 DeserializationContext ctxt) throws IOException {
+            switch (name) {
+                case "description" -> request.setDescription(p.getValueAsString());
+                case "date" -> request.setDate(p.getValueAsString());
+                default -> p.skipChildren();
+            }
+        }
+    }
+
+    private static class UpdateTaskRequestDeserializer extends ObjectDeserializer<UpdateTaskRequest> {
+        UpdateTaskRequestDeserializer() {
+            super(UpdateTaskRequest.class);
+        }
+
+        @Override
+        protected UpdateTaskRequest newInstance() {
+            return new UpdateTaskRequest();
+        }
+
+        @Override
+        protected void readField(UpdateTaskRequest request, String name, JsonParser p,
+                                 DeserializationContext ctxt) throws IOException {
+            switch (name) {
+                case "description" -> request.setDescription(p.getValueAsString());
+                case "date" -> request.setDate(p.getValueAsString());
+                case "status" -> request.setStatus(p.getValueAsString());
+                default -> p.skipChildren();
+            }
+        }
+    }
+
+    private static class BatchOperationDeserializer extends ObjectDeserializer<BatchOperation> {
+        BatchOperationDeserializer() {
+            super(BatchOperation.class);
+        }
+
+        @Override
+        protected BatchOperation newInstance() {
+            return new BatchOperation();
+        }
+
+        @Override
+        protected void readField(BatchOperation operation, String name, JsonParser p,
+                                 DeserializationContext ctxt) throws IOException {
+            switch (name) {
+                case "op" -> operation.setOp(p.getValueAsString());
+                case "taskId" -> operation.setTaskId(p.getValueAsString());
+                case "description" -> operation.setDescription(p.getValueAsString());
+                case "date" -> operation.setDate(p.getValueAsString());
+                default -> p.skipChildren();
+            }
+        }
+    }
+
+    private static class BatchTaskRequestDeserializer extends ObjectDeserializer<BatchTaskRequest> {
+        private final BatchOperationDeserializer operationDeserializer = new BatchOperationDeserializer();
+
+        BatchTaskRequestDeserializer() {
+            super(BatchTaskRequest.class);
+        }
+
+        @Override
+        protected BatchTaskRequest newInstance() {
+            return new BatchTaskRequest();
+        }
+
+        @Override
+        protected void readField(BatchTaskRequest request, String name, JsonParser p,
+                                 DeserializationContext ctxt) throws IOException {
+            if (!"operations".equals(name) || p.currentToken() != JsonToken.START_ARRAY) {
+                p.skipChildren();
+                return;
+            }
+            List<BatchOperation> operations = new ArrayList<>();
+            for (JsonToken token = p.nextToken(); token != JsonToken.END_ARRAY; token = p.nextToken()) {
+                operations.add(token == JsonToken.VALUE_NULL ? null : operationDeserializer.deserialize(p, ctxt));
+            }
+            request.setOperations(operations);
+        }
+    }
+
+    private static class BatchOperationResultSerializer extends StdSerializer<BatchOperationResult> {
+        BatchOperationResultSerializer() {
+            super(BatchOperationResult.class);
+        }
+
+        @Override
+        public void serialize(BatchOperationResult result, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            gen.writeNumberField("index", result.getIndex());
+            writeString(gen, "op", result.getOp());
+            writeString(gen, "taskId", result.getTaskId());
+            writeString(gen, "status", result.getStatus());
+            writeString(gen, "error", result.getError());
+            gen.writeEndObject();
+        }
+    }
+
+    private static class ExpiryMessageSerializer extends StdSerializer<ExpiryMessage> {
+        ExpiryMessageSerializer() {
+            super(ExpiryMessage.class);
+        }
+
+        @Override
+        public void serialize(ExpiryMessage message, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            writeString(gen, "userId", message.getUserId());
+            writeString(gen, "taskId", message.getTaskId());
+            writeString(gen, "userEmail", message.getUserEmail());
+            writeLong(gen, "deadline", message.getDeadline());
+            gen.writeEndObject();
+        }
+    }
+
+    private static class ExpiryMessageDeserializer extends ObjectDeserializer<ExpiryMessage> {
+        ExpiryMessageDeserializer() {
+            super(ExpiryMessage.class);
+        }
+
+        @Override
+        protected ExpiryMessage newInstance() {
+            return new ExpiryMessage();
+        }
+
+        @Override
+        protected void readField(ExpiryMessage message, String name, JsonParser p,
+                                 DeserializationContext ctxt) throws IOException {
+            switch (name) {
+                case "userId" -> message.setUserId(p.getValueAsString());
+                case "taskId" -> message.setTaskId(p.getValueAsString());
+                case "userEmail" -> message.setUserEmail(p.getValueAsString());
+                case "deadline" -> message.setDeadline(readLong(p));
+                default -> p.skipChildren();
+            }
+        }
+    }
+}
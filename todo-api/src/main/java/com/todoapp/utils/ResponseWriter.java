@@ -0,0 +1,105 @@
+package com.todoapp.utils;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds API Gateway proxy responses. Bodies are streamed straight into a reused per-thread buffer
+ * instead of an intermediate String. Compression is left to API Gateway (MinimumCompressionSize),
+ * so bodies stay text and the API needs no binary media types.
+ */
+public class ResponseWriter {
+    // Buffers that grew past this are dropped after use so one huge response doesn't pin the heap
+    private static final int MAX_RETAINED_BUFFER_BYTES = 1024 * 1024;
+
+    private static final Map<String, String> JSON_HEADERS = Map.of(
+            "Content-Type", "application/json",
+            "Vary", "Accept-Encoding",
+            "Access-Control-Allow-Origin", "*",
+            "Access-Control-Allow-Methods", "GET,POST,PUT,DELETE,OPTIONS",
+            "Access-Control-Allow-Headers", "Content-Type,X-Amz-Date,Authorization,X-Api-Key,X-Amz-Security-Token,X-Requested-With,If-Match,If-None-Match",
+            "Access-Control-Expose-Headers", "ETag,Retry-After",
+            "Access-Control-Allow-Credentials", "true");
+
+    private static final ThreadLocal<Buffer> JSON_BUFFER = ThreadLocal.withInitial(Buffer::new);
+
+    private final ObjectMapper objectMapper;
+
+    public ResponseWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public APIGatewayProxyResponseEvent write(int statusCode, Object body, Map<String, String> extraHeaders) {
+        Buffer json = JSON_BUFFER.get();
+        try {
+            json.reset();
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(json)) {
+                objectMapper.writeValue(generator, body);
+            }
+            return respond(statusCode, json.array(), json.size(), extraHeaders);
+        } catch (IOException e) {
+            throw new RuntimeException("Error writing response", e);
+        } finally {
+            release(JSON_BUFFER, json);
+        }
+    }
+
+    /**
+     * Writes an already-serialized JSON body, e.g. a cached listing. A null body yields an empty response.
+     */
+    public APIGatewayProxyResponseEvent writeJson(int statusCode, byte[] body, Map<String, String> extraHeaders) {
+        if (body == null) {
+            APIGatewayProxyResponseEvent response = new APIGatewayProxyResponseEvent();
+            response.setStatusCode(statusCode);
+            response.setHeaders(headers(JSON_HEADERS, extraHeaders));
+            return response;
+        }
+        return respond(statusCode, body, body.length, extraHeaders);
+    }
+
+    private APIGatewayProxyResponseEvent respond(int statusCode, byte[] body, int length,
+                                                 Map<String, String> extraHeaders) {
+        APIGatewayProxyResponseEvent response = new APIGatewayProxyResponseEvent();
+        response.setStatusCode(statusCode);
+        response.setBody(new String(body, 0, length, StandardCharsets.UTF_8));
+        response.setHeaders(headers(JSON_HEADERS, extraHeaders));
+        return response;
+    }
+
+    private static Map<String, String> headers(Map<String, String> base, Map<String, String> extraHeaders) {
+        return extraHeaders.isEmpty() ? base : with(base, extraHeaders);
+    }
+
+    private static Map<String, String> with(Map<String, String> base, Map<String, String> extraHeaders) {
+        Map<String, String> headers = new HashMap<>(base);
+        headers.putAll(extraHeaders);
+        return Map.copyOf(headers);
+    }
+
+    private static void release(ThreadLocal<Buffer> holder, Buffer buffer) {
+        if (buffer.capacity() > MAX_RETAINED_BUFFER_BYTES) {
+            holder.remove();
+        }
+    }
+
+    private static class Buffer extends ByteArrayOutputStream {
+        Buffer() {
+            super(8192);
+        }
+
+        byte[] array() {
+            return buf;
+        }
+
+        int capacity() {
+            return buf.length;
+        }
+    }
+}
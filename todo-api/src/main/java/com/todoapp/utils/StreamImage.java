@@ -0,0 +1,38 @@
+package com.todoapp.utils;
+
+import com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue;
+
+import java.util.Map;
+
+/**
+ * Read-only view over a DynamoDB stream image that decodes attributes only when they are asked for.
+ * Each accessor is a single map lookup; numbers are parsed on demand and nothing is cached, so callers
+ * that read a field more than once should keep the value.
+ */
+public final class StreamImage {
+    private static final StreamImage EMPTY = new StreamImage(Map.of());
+
+    private final Map<String, AttributeValue> image;
+
+    private StreamImage(Map<String, AttributeValue> image) {
+        this.image = image;
+    }
+
+    public static StreamImage of(Map<String, AttributeValue> image) {
+        return image == null ? EMPTY : new StreamImage(image);
+    }
+
+    public String string(String name) {
+        AttributeValue value = image.get(name);
+        return value != null ? value.getS() : null;
+    }
+
+    public Long number(String name) {
+        AttributeValue value = image.get(name);
+        return value != null && value.getN() != null ? Long.valueOf(value.getN()) : null;
+    }
+
+    public boolean hasString(String name, String expected) {
+        return expected.equals(string(name));
+    }
+}
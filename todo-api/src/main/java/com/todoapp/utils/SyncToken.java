@@ -0,0 +1,30 @@
+package com.todoapp.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque, URL-safe delta-sync token. It wraps the epoch millisecond that the next sync reads
+ * changes from, so clients never depend on its format.
+ */
+public class SyncToken {
+    private static final String PREFIX = "v1:";
+
+    public static String encode(long sinceMillis) {
+        byte[] token = (PREFIX + sinceMillis).getBytes(StandardCharsets.US_ASCII);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token);
+    }
+
+    public static long decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+            if (!value.startsWith(PREFIX)) {
+                throw new IllegalArgumentException("Invalid sync token");
+            }
+            return Long.parseLong(value.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException and bad base64 both land here
+            throw new IllegalArgumentException("Invalid sync token");
+        }
+    }
+}
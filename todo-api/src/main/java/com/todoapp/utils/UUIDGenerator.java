@@ -1,9 +1,106 @@
 package com.todoapp.utils;
 
+import org.crac.Context;
+import org.crac.Core;
+import org.crac.Resource;
+
+import java.security.SecureRandom;
+import java.util.SplittableRandom;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates time-ordered UUIDv7 (RFC 9562) task ids: 48 bits of Unix milliseconds, a 12-bit counter
+ * and 62 random bits. Ids are strictly increasing within a process, so in their canonical lowercase
+ * form they sort by creation time both numerically and as DynamoDB string sort keys.
+ *
+ * <p>The timestamp and counter advance together through a single CAS on an AtomicLong, so
+ * generation never blocks. Random bits come from a per-thread generator seeded from SecureRandom;
+ * seeds are renewed after a SnapStart restore so containers restored from one snapshot don't
+ * produce identical sequences.
+ */
+public class UUIDGenerator implements Resource {
+    private static final int COUNTER_BITS = 12;
+    private static final long VERSION_7 = 0x7000L;
+    private static final long VARIANT = 0x8000_0000_0000_0000L;
+    private static final long RANDOM_MASK = 0x3FFF_FFFF_FFFF_FFFFL;
+
+    private static final SecureRandom SEED_SOURCE = new SecureRandom();
+    // (unix millis << COUNTER_BITS) | counter of the last id handed out
+    private static final AtomicLong LAST = new AtomicLong();
+    private static final ThreadLocal<Entropy> ENTROPY = ThreadLocal.withInitial(Entropy::new);
+    private static final UUIDGenerator RESTORE_HOOK = new UUIDGenerator();
+    private static volatile int seedGeneration;
+
+    static {
+        Core.getGlobalContext().register(RESTORE_HOOK);
+    }
+
+    private UUIDGenerator() {}
 
-public class UUIDGenerator {
     public static String generateUUID() {
-        return UUID.randomUUID().toString();
+        return generate().toString();
+    }
+
+    public static UUID generate() {
+        return generate(System.currentTimeMillis());
+    }
+
+    // The clock reading is a parameter so tests can step it back
+    static UUID generate(long unixMillis) {
+        long timestamp = nextTimestamp(unixMillis);
+        long msb = (timestamp >>> COUNTER_BITS) << 16 | VERSION_7 | (timestamp & ((1 << COUNTER_BITS) - 1));
+        long lsb = VARIANT | (ENTROPY.get().nextLong() & RANDOM_MASK);
+        return new UUID(msb, lsb);
+    }
+
+    /**
+     * Unix milliseconds encoded in a UUIDv7 id.
+     */
+    public static long timestampOf(String uuid) {
+        return UUID.fromString(uuid).getMostSignificantBits() >>> 16;
+    }
+
+    /**
+     * The smallest UUIDv7 id for the given millisecond; every id generated at or after it sorts at or above it.
+     */
+    public static String lowerBound(long unixMillis) {
+        return new UUID(unixMillis << 16 | VERSION_7, VARIANT).toString();
+    }
+
+    private static long nextTimestamp(long unixMillis) {
+        long now = unixMillis << COUNTER_BITS;
+        while (true) {
+            long last = LAST.get();
+            // Within one millisecond, or if the clock steps back, keep counting up from the last id;
+            // a counter overflow carries into the millisecond field, which keeps ids increasing
+            long next = now > last ? now : last + 1;
+            if (LAST.compareAndSet(last, next)) {
+                return next;
+            }
+        }
+    }
+
+    @Override
+    public void beforeCheckpoint(Context<? extends Resource> context) {
+    }
+
+    @Override
+    public void afterRestore(Context<? extends Resource> context) {
+        seedGeneration++;
+    }
+
+    private static final class Entropy {
+        private SplittableRandom random;
+        private int generation = -1;
+
+        long nextLong() {
+            int current = seedGeneration;
+            if (generation != current) {
+                random = new SplittableRandom(SEED_SOURCE.nextLong());
+                generation = current;
+            }
+            return random.nextLong();
+        }
     }
-}
\ No newline at end of file
+}
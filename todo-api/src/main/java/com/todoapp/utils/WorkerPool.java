@@ -0,0 +1,30 @@
+package com.todoapp.utils;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Process-wide pool for fanning out blocking AWS calls. Threads are daemons so a frozen
+ * or shutting-down Lambda container is never held open by idle workers.
+ */
+public class WorkerPool {
+    private static final int POOL_SIZE = 16;
+    private static final ExecutorService executor = Executors.newFixedThreadPool(POOL_SIZE, new DaemonThreadFactory());
+
+    public static ExecutorService executor() {
+        return executor;
+    }
+
+    private static class DaemonThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "todo-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.todoapp.handlers;
+
+import com.amazonaws.services.lambda.runtime.events.CognitoUserPoolPostAuthenticationEvent;
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse;
+import com.todoapp.services.NotificationService;
+import com.todoapp.support.InMemorySqsClient;
+import com.todoapp.support.MutableClock;
+import com.todoapp.support.TestContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminUpdateUserAttributesRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminUpdateUserAttributesResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.CognitoIdentityProviderException;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The post-authentication trigger only queues a subscription; SubscriptionHandler performs it.
+ */
+class AuthHandlerTest {
+    private static final String USER_POOL_ID = "eu-central-1_test";
+
+    private InMemorySqsClient sqs;
+    private FakeNotificationService notificationService;
+    private RecordingCognitoClient cognito;
+    private AuthHandler authHandler;
+    private SubscriptionHandler subscriptionHandler;
+    private TestContext context;
+
+    @BeforeEach
+    void setUp() {
+        MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+        sqs = new InMemorySqsClient(clock);
+        notificationService = new FakeNotificationService();
+        cognito = new RecordingCognitoClient();
+        authHandler = new AuthHandler(sqs, "https://sqs.local/subscriptions", clock);
+        subscriptionHandler = new SubscriptionHandler(notificationService, cognito);
+        context = new TestContext();
+    }
+
+    @Test
+    void loginQueuesTheSubscriptionOnce() {
+        authHandler.handleRequest(login("ana", "ana@example.com", null), context);
+        authHandler.handleRequest(login("ana", "ana@example.com", null), context);
+
+        assertEquals(1, sqs.size());
+        assertTrue(notificationService.subscribed.isEmpty(), "subscribed on the login path");
+    }
+
+    @Test
+    void subscribedUserQueuesNothing() {
+        authHandler.handleRequest(login("ana", "ana@example.com", "ana@example.com"), context);
+
+        assertEquals(0, sqs.size());
+    }
+
+    @Test
+    void failedSendIsRetriedOnTheNextLogin() {
+        sqs.failSends(true);
+        authHandler.handleRequest(login("ana", "ana@example.com", null), context);
+        sqs.failSends(false);
+        authHandler.handleRequest(login("ana", "ana@example.com", null), context);
+
+        assertEquals(1, sqs.size());
+    }
+
+    @Test
+    void consumerSubscribesAndMarksTheUser() {
+        authHandler.handleRequest(login("ana", "ana@example.com", null), context);
+
+        SQSBatchResponse response = subscriptionHandler.handleRequest(sqs.receive(), context);
+
+        assertTrue(response.getBatchItemFailures().isEmpty());
+        assertEquals(List.of("ana@example.com"), notificationService.subscribed);
+        AdminUpdateUserAttributesRequest update = cognito.updates.get(0);
+        assertEquals("ana", update.username());
+        assertEquals(AuthHandler.SUBSCRIBED_EMAIL_ATTRIBUTE, update.userAttributes().get(0).name());
+        assertEquals("ana@example.com", update.userAttributes().get(0).value());
+    }
+
+    @Test
+    void failedSubscriptionIsReportedForRedelivery() {
+        authHandler.handleRequest(login("ana", "ana@example.com", null), context);
+        authHandler.handleRequest(login("ben", "ben@example.com", null), context);
+        cognito.failFor = "ben";
+
+        SQSBatchResponse response = subscriptionHandler.handleRequest(sqs.receive(), context);
+
+        assertEquals(1, response.getBatchItemFailures().size());
+        assertEquals(1, cognito.updates.size());
+    }
+
+    private static CognitoUserPoolPostAuthenticationEvent login(String userName, String email, String subscribedEmail) {
+        Map<String, String> attributes = new HashMap<>();
+        attributes.put("email", email);
+        if (subscribedEmail != null) {
+            attributes.put(AuthHandler.SUBSCRIBED_EMAIL_ATTRIBUTE, subscribedEmail);
+        }
+        return CognitoUserPoolPostAuthenticationEvent.builder()
+                .withTriggerSource("PostAuthentication_Authentication")
+                .withUserPoolId(USER_POOL_ID)
+                .withUserName(userName)
+                .withRequest(CognitoUserPoolPostAuthenticationEvent.Request.builder()
+                        .withUserAttributes(attributes)
+                        .build())
+                .build();
+    }
+
+    private static class FakeNotificationService extends NotificationService {
+        private final List<String> subscribed = new ArrayList<>();
+
+        FakeNotificationService() {
+            super(null, "arn:aws:sns:local:000000000000:TaskNotifications", true);
+        }
+
+        @Override
+        public synchronized void subscribeUser(String email) {
+            subscribed.add(email);
+        }
+    }
+
+    private static class RecordingCognitoClient implements CognitoIdentityProviderClient {
+        private final List<AdminUpdateUserAttributesRequest> updates = new ArrayList<>();
+        private volatile String failFor;
+
+        @Override
+        public synchronized AdminUpdateUserAttributesResponse adminUpdateUserAttributes(AdminUpdateUserAttributesRequest request) {
+            if (request.username().equals(failFor)) {
+                throw CognitoIdentityProviderException.builder().statusCode(500).message("InternalError").build();
+            }
+            updates.add(request);
+            return AdminUpdateUserAttributesResponse.builder().build();
+        }
+
+        @Override
+        public String serviceName() { return SERVICE_NAME; }
+
+        @Override
+        public void close() {
+        }
+    }
+}
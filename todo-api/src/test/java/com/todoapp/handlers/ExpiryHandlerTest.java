@@ -0,0 +1,354 @@
+package com.todoapp.handlers;
+
+import com.amazonaws.services.lambda.runtime.events.DynamodbEvent;
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse;
+import com.amazonaws.services.lambda.runtime.events.SQSEvent;
+import com.amazonaws.services.lambda.runtime.events.StreamsEventResponse;
+import com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue;
+import com.amazonaws.services.lambda.runtime.events.models.dynamodb.StreamRecord;
+import com.todoapp.models.ExpiryMessage;
+import com.todoapp.models.Task;
+import com.todoapp.resilience.ResilientExecutor;
+import com.todoapp.services.DynamoDBService;
+import com.todoapp.services.ExpiryScheduler;
+import com.todoapp.services.NotificationService;
+import com.todoapp.services.TaskService;
+import com.todoapp.support.InMemorySqsClient;
+import com.todoapp.support.MutableClock;
+import com.todoapp.support.TestContext;
+import com.todoapp.utils.JsonUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives the expiry paths against an in-memory queue and a simulated clock: in queue mode the stream
+ * insert, 15-minute hops that never touch the table and the final conditional expiry; in sweeper mode
+ * the bucket sweep and its watermark.
+ */
+class ExpiryHandlerTest {
+    private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+
+    private MutableClock clock;
+    private InMemorySqsClient sqs;
+    private FakeDynamoDBService dynamoDb;
+    private FakeTaskService taskService;
+    private FakeNotificationService notificationService;
+    private ExpiryHandler handler;
+    private TestContext context;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(START);
+        sqs = new InMemorySqsClient(clock);
+        dynamoDb = new FakeDynamoDBService();
+        taskService = new FakeTaskService(dynamoDb);
+        notificationService = new FakeNotificationService();
+        ExpiryScheduler scheduler = new ExpiryScheduler(sqs, "https://sqs.local/expiry", clock);
+        handler = new ExpiryHandler(taskService, notificationService, scheduler, false, 15, clock);
+        context = new TestContext();
+    }
+
+    @Test
+    void deadlineBeyondMaxDelayHopsUntilDueThenExpiresOnce() {
+        long deadline = START.plus(Duration.ofMinutes(40)).toEpochMilli();
+        taskService.put(task("u1", "t1", "Pending", deadline));
+
+        StreamsEventResponse streamResponse = handler.processStream(insertEvent("u1", "t1", deadline), context);
+        assertTrue(streamResponse.getBatchItemFailures().isEmpty());
+
+        int deliveries = 0;
+        while (sqs.size() > 0) {
+            clock.setMillis(sqs.nextVisibleAtMillis());
+            assertTrue(taskService.expired.isEmpty(), "expired before the last hop");
+            SQSBatchResponse response = handler.handleExpiry(sqs.receive(), context);
+            assertTrue(response.getBatchItemFailures().isEmpty());
+            deliveries++;
+        }
+
+        // 40 minutes: two capped hops, then the remainder
+        assertEquals(List.of(900, 900, 600), sqs.sentDelays());
+        assertEquals(3, deliveries);
+        assertEquals(1, taskService.reads, "only the final hop reads the table");
+        assertEquals(List.of("u1/t1"), taskService.expired);
+        assertEquals(deadline, clock.millis());
+        assertEquals(1, notificationService.notified.size());
+    }
+
+    @Test
+    void messageWithinToleranceOfDeadlineIsDue() {
+        long deadline = clock.millis() + 500;
+        taskService.put(task("u1", "t1", "Pending", deadline));
+        sqs.putRaw("m1", JsonUtil.toJson(new ExpiryMessage("u1", "t1", "a@example.com", deadline)));
+
+        SQSBatchResponse response = handler.handleExpiry(sqs.receive(), context);
+
+        assertTrue(response.getBatchItemFailures().isEmpty());
+        assertEquals(List.of("u1/t1"), taskService.expired);
+        assertTrue(sqs.sentDelays().isEmpty());
+    }
+
+    @Test
+    void messageWithoutDeadlineIsDue() {
+        taskService.put(task("u1", "t1", "Pending", clock.millis()));
+        sqs.putRaw("m1", JsonUtil.toJson(new ExpiryMessage("u1", "t1", "a@example.com", null)));
+
+        handler.handleExpiry(sqs.receive(), context);
+
+        assertEquals(List.of("u1/t1"), taskService.expired);
+    }
+
+    @Test
+    void legacyMessageBeforeTaskDeadlineHopsWithTaskDeadline() {
+        long deadline = START.plus(Duration.ofMinutes(20)).toEpochMilli();
+        taskService.put(task("u1", "t1", "Pending", deadline));
+        // Sent to the FIFO queue before messages carried deadlines, delivered without delay
+        sqs.putRaw("legacy", "{\"userId\":\"u1\",\"taskId\":\"t1\",\"userEmail\":\"a@example.com\"}");
+
+        SQSBatchResponse response = handler.handleExpiry(sqs.receive(), context);
+        assertTrue(response.getBatchItemFailures().isEmpty());
+        assertTrue(taskService.expired.isEmpty());
+
+        while (sqs.size() > 0) {
+            clock.setMillis(sqs.nextVisibleAtMillis());
+            handler.handleExpiry(sqs.receive(), context);
+        }
+
+        assertEquals(List.of(900, 300), sqs.sentDelays());
+        assertEquals(List.of("u1/t1"), taskService.expired);
+        assertEquals(deadline, clock.millis());
+    }
+
+    @Test
+    void taskCompletedBeforeDeadlineIsNotExpired() {
+        long deadline = START.plus(Duration.ofMinutes(10)).toEpochMilli();
+        taskService.put(task("u1", "t1", "Pending", deadline));
+        handler.processStream(insertEvent("u1", "t1", deadline), context);
+        taskService.put(task("u1", "t1", "Completed", deadline));
+
+        clock.setMillis(sqs.nextVisibleAtMillis());
+        SQSBatchResponse response = handler.handleExpiry(sqs.receive(), context);
+
+        assertTrue(response.getBatchItemFailures().isEmpty());
+        assertTrue(taskService.expired.isEmpty());
+        assertEquals(0, sqs.size());
+    }
+
+    @Test
+    void failedHopIsReportedForRedelivery() {
+        long deadline = START.plus(Duration.ofHours(1)).toEpochMilli();
+        sqs.putRaw("m1", JsonUtil.toJson(new ExpiryMessage("u1", "t1", "a@example.com", deadline)));
+        sqs.failSends(true);
+
+        SQSBatchResponse response = handler.handleExpiry(sqs.receive(), context);
+
+        assertEquals(List.of("m1"), response.getBatchItemFailures().stream()
+                .map(SQSBatchResponse.BatchItemFailure::getItemIdentifier).toList());
+        assertEquals(0, taskService.reads);
+    }
+
+    @Test
+    void undecodableMessageIsReportedForRedelivery() {
+        sqs.putRaw("m1", "not json");
+
+        SQSBatchResponse response = handler.handleExpiry(sqs.receive(), context);
+
+        assertEquals(1, response.getBatchItemFailures().size());
+        assertEquals("m1", response.getBatchItemFailures().get(0).getItemIdentifier());
+    }
+
+    @Test
+    void sweepAfterOutageLongerThanLookbackExpiresEveryDueTask() {
+        long startBucket = TaskService.deadlineBucket(START.toEpochMilli());
+        dynamoDb.watermark = startBucket - 1;
+        taskService.put(task("u1", "t1", "Pending", START.plus(Duration.ofMinutes(5)).toEpochMilli()));
+        taskService.put(task("u1", "t2", "Pending", START.plus(Duration.ofMinutes(90)).toEpochMilli()));
+        taskService.put(task("u1", "t3", "Pending", START.plus(Duration.ofHours(3)).toEpochMilli()));
+        clock.advance(Duration.ofHours(2));
+
+        handler.sweepExpired(null, context);
+
+        assertEquals(Set.of("u1/t1", "u1/t2"), new HashSet<>(taskService.expired));
+        assertEquals(TaskService.deadlineBucket(clock.millis()) - 1, dynamoDb.watermark);
+    }
+
+    @Test
+    void firstSweepStartsAtOldestBucket() {
+        taskService.put(task("u1", "t1", "Pending", START.toEpochMilli()));
+        clock.advance(Duration.ofHours(3));
+        assertNull(dynamoDb.watermark);
+
+        handler.sweepExpired(null, context);
+
+        assertEquals(List.of("u1/t1"), taskService.expired);
+        assertEquals(TaskService.deadlineBucket(clock.millis()) - 1, dynamoDb.watermark);
+    }
+
+    @Test
+    void failedExpiryHoldsWatermarkUntilRetried() {
+        long startBucket = TaskService.deadlineBucket(START.toEpochMilli());
+        dynamoDb.watermark = startBucket - 1;
+        Task failing = task("u1", "t1", "Pending", START.plus(Duration.ofMinutes(30)).toEpochMilli());
+        taskService.put(failing);
+        taskService.put(task("u1", "t2", "Pending", START.plus(Duration.ofMinutes(50)).toEpochMilli()));
+        taskService.failing.add("u1/t1");
+        clock.advance(Duration.ofHours(1));
+
+        handler.sweepExpired(null, context);
+        assertEquals(List.of("u1/t2"), taskService.expired);
+        assertEquals(failing.getDeadlineBucket() - 1, dynamoDb.watermark);
+
+        taskService.failing.clear();
+        clock.advance(Duration.ofMinutes(1));
+        handler.sweepExpired(null, context);
+        assertEquals(List.of("u1/t2", "u1/t1"), taskService.expired);
+        assertEquals(TaskService.deadlineBucket(clock.millis()) - 1, dynamoDb.watermark);
+    }
+
+    private static Task task(String userId, String taskId, String status, long deadline) {
+        Task task = new Task();
+        task.setUserId(userId);
+        task.setTaskId(taskId);
+        task.setStatus(status);
+        task.setUserEmail("a@example.com");
+        task.setDeadline(deadline);
+        task.setDeadlineBucket(TaskService.deadlineBucket(deadline));
+        return task;
+    }
+
+    private static DynamodbEvent insertEvent(String userId, String taskId, long deadline) {
+        Map<String, AttributeValue> image = new HashMap<>();
+        image.put("userId", new AttributeValue().withS(userId));
+        image.put("taskId", new AttributeValue().withS(taskId));
+        image.put("userEmail", new AttributeValue().withS("a@example.com"));
+        image.put("status", new AttributeValue().withS("Pending"));
+        image.put("deadline", new AttributeValue().withN(Long.toString(deadline)));
+
+        StreamRecord streamRecord = new StreamRecord();
+        streamRecord.setSequenceNumber("1");
+        streamRecord.setNewImage(image);
+        DynamodbEvent.DynamodbStreamRecord record = new DynamodbEvent.DynamodbStreamRecord();
+        record.setEventName("INSERT");
+        record.setDynamodb(streamRecord);
+
+        DynamodbEvent event = new DynamodbEvent();
+        event.setRecords(List.of(record));
+        return event;
+    }
+
+    /**
+     * Tasks and sweep watermark held in memory; only the calls the expiry paths make are supported.
+     */
+    private static class FakeDynamoDBService extends DynamoDBService {
+        private final Map<String, Task> tasks = new HashMap<>();
+        private Long watermark;
+
+        FakeDynamoDBService() {
+            super(new DynamoDbClient() {
+                @Override
+                public String serviceName() { return SERVICE_NAME; }
+
+                @Override
+                public void close() {
+                }
+            }, new ResilientExecutor());
+        }
+
+        @Override
+        public synchronized List<Task> getDueTasks(long deadlineBucket, long now) {
+            return tasks.values().stream()
+                    .filter(task -> "Pending".equals(task.getStatus()))
+                    .filter(task -> task.getDeadlineBucket() == deadlineBucket && task.getDeadline() <= now)
+                    .toList();
+        }
+
+        @Override
+        public synchronized Long getOldestDeadlineBucket() {
+            return tasks.values().stream()
+                    .filter(task -> "Pending".equals(task.getStatus()))
+                    .map(Task::getDeadlineBucket)
+                    .min(Long::compare)
+                    .orElse(null);
+        }
+
+        @Override
+        public synchronized Long getSweepWatermark() {
+            return watermark;
+        }
+
+        @Override
+        public synchronized void advanceSweepWatermark(long bucket) {
+            if (watermark == null || watermark < bucket) {
+                watermark = bucket;
+            }
+        }
+    }
+
+    private static class FakeTaskService extends TaskService {
+        private final Map<String, Task> tasks;
+        private final List<String> expired = new ArrayList<>();
+        private final Set<String> failing = new HashSet<>();
+        private int reads;
+
+        FakeTaskService(FakeDynamoDBService dynamoDb) {
+            super(dynamoDb);
+            this.tasks = dynamoDb.tasks;
+        }
+
+        void put(Task task) {
+            synchronized (tasks) {
+                tasks.put(task.getUserId() + "/" + task.getTaskId(), task);
+            }
+        }
+
+        @Override
+        public synchronized List<Task> getTasks(List<Task> keys) {
+            reads++;
+            return keys.stream()
+                    .map(key -> tasks.get(key.getUserId() + "/" + key.getTaskId()))
+                    .filter(task -> task != null)
+                    .toList();
+        }
+
+        @Override
+        public synchronized Task expireTask(String userId, String taskId) {
+            if (failing.contains(userId + "/" + taskId)) {
+                throw new IllegalStateException("Simulated write failure");
+            }
+            Task task = tasks.get(userId + "/" + taskId);
+            if (task == null || !"Pending".equals(task.getStatus())) {
+                return null;
+            }
+            task.setStatus("Expired");
+            expired.add(userId + "/" + taskId);
+            return task;
+        }
+    }
+
+    private static class FakeNotificationService extends NotificationService {
+        private final List<Task> notified = new ArrayList<>();
+
+        FakeNotificationService() {
+            super(null, "arn:aws:sns:local:000000000000:TaskNotifications", true);
+        }
+
+        @Override
+        public int sendTaskExpiryNotifications(List<Task> tasks) {
+            notified.addAll(tasks);
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.todoapp.resilience;
+
+import com.todoapp.support.MutableClock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveRateLimiterTest {
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+    private final AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(5, 100, 20, clock);
+
+    @Test
+    void throttleCutsTheRateAndEmptiesTheBucket() throws InterruptedException {
+        limiter.onThrottle();
+
+        assertEquals(70, limiter.rate(), 0.001);
+        assertEquals(-1, limiter.acquire(0));
+    }
+
+    @Test
+    void throttlesOfOneOverloadCountOnce() {
+        limiter.onThrottle();
+        limiter.onThrottle();
+        clock.advance(Duration.ofMillis(100));
+        limiter.onThrottle();
+
+        assertEquals(72, limiter.rate(), 0.001);
+    }
+
+    @Test
+    void cutFollowsTheRateActuallySent() throws InterruptedException {
+        // 20 calls in one 500 ms window: 40 per second, well under the 100 allowed
+        for (int i = 0; i < 20; i++) {
+            assertEquals(0, limiter.acquire(0));
+        }
+        clock.advance(Duration.ofMillis(500));
+
+        limiter.onThrottle();
+
+        assertEquals(28, limiter.rate(), 0.001);
+    }
+
+    @Test
+    void rateNeverDropsBelowTheMinimum() {
+        for (int i = 0; i < 20; i++) {
+            limiter.onThrottle();
+            clock.advance(Duration.ofMillis(500));
+        }
+        limiter.onThrottle();
+
+        assertTrue(limiter.rate() >= 5);
+    }
+
+    @Test
+    void rateRecoversWithoutThrottles() throws InterruptedException {
+        limiter.onThrottle();
+        clock.advance(Duration.ofSeconds(1));
+        limiter.acquire(0);
+        assertEquals(90, limiter.rate(), 0.001);
+
+        clock.advance(Duration.ofSeconds(10));
+
+        assertEquals(0, limiter.acquire(0));
+        assertEquals(100, limiter.rate(), 0.001);
+    }
+}
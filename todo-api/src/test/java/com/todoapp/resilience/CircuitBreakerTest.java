@@ -0,0 +1,92 @@
+package com.todoapp.resilience;
+
+import com.todoapp.support.MutableClock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+    private final CircuitBreaker breaker = new CircuitBreaker(3, 5000, clock);
+
+    @Test
+    void opensAfterConsecutiveFailures() {
+        breaker.onFailure();
+        breaker.onFailure();
+        assertEquals(0, breaker.tryAcquire());
+
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertEquals(5000, breaker.tryAcquire());
+        clock.advance(Duration.ofMillis(2000));
+        assertEquals(3000, breaker.tryAcquire());
+    }
+
+    @Test
+    void successResetsTheFailureCount() {
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onFailure();
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void halfOpenLetsASingleProbeThrough() {
+        open();
+        clock.advance(Duration.ofMillis(5000));
+
+        assertEquals(0, breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertTrue(breaker.tryAcquire() > 0, "second call let through while the probe is out");
+    }
+
+    @Test
+    void failedProbeOpensAgain() {
+        open();
+        clock.advance(Duration.ofMillis(5000));
+        breaker.tryAcquire();
+
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertEquals(5000, breaker.tryAcquire());
+    }
+
+    @Test
+    void successfulProbeCloses() {
+        open();
+        clock.advance(Duration.ofMillis(5000));
+        breaker.tryAcquire();
+
+        breaker.onSuccess();
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertEquals(0, breaker.tryAcquire());
+        assertEquals(0, breaker.tryAcquire());
+    }
+
+    @Test
+    void lostProbeIsReplacedAfterAnotherOpenPeriod() {
+        open();
+        clock.advance(Duration.ofMillis(5000));
+        breaker.tryAcquire();
+
+        clock.advance(Duration.ofMillis(5000));
+
+        assertEquals(0, breaker.tryAcquire());
+    }
+
+    private void open() {
+        for (int i = 0; i < 3; i++) {
+            breaker.onFailure();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.todoapp.resilience;
+
+import com.todoapp.exceptions.ServiceUnavailableException;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+
+import java.time.Clock;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs GetItem calls against a DynamoDB client that fails its first calls with an injected error.
+ */
+class ResilientExecutorTest {
+    private static final double MAX_RATE = 1000;
+
+    private final AdaptiveRateLimiter rateLimiter = new AdaptiveRateLimiter(5, MAX_RATE, 20, Clock.systemUTC());
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker(10, 5000, Clock.systemUTC());
+    private final ResilientExecutor executor = new ResilientExecutor(rateLimiter, circuitBreaker, 1, 2);
+
+    @Test
+    void retriesThrottlesUntilTheCallSucceeds() {
+        FailingDynamoDbClient dynamoDb = new FailingDynamoDbClient(2, ResilientExecutorTest::throttle);
+
+        GetItemResponse response = executor.call(() -> dynamoDb.getItem(GetItemRequest.builder().build()));
+
+        assertNotNull(response);
+        assertEquals(3, dynamoDb.calls);
+        assertTrue(rateLimiter.rate() < MAX_RATE, "rate not cut after a throttle");
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.state());
+    }
+
+    @Test
+    void retriesServerErrors() {
+        FailingDynamoDbClient dynamoDb = new FailingDynamoDbClient(1, () -> DynamoDbException.builder().statusCode(500).build());
+
+        executor.call(() -> dynamoDb.getItem(GetItemRequest.builder().build()));
+
+        assertEquals(2, dynamoDb.calls);
+        assertEquals(MAX_RATE, rateLimiter.rate(), 0.001);
+    }
+
+    @Test
+    void clientErrorsAreRethrownWithoutRetrying() {
+        ConditionalCheckFailedException conditionFailed = ConditionalCheckFailedException.builder().statusCode(400).build();
+        FailingDynamoDbClient dynamoDb = new FailingDynamoDbClient(1, () -> conditionFailed);
+
+        RuntimeException thrown = assertThrows(RuntimeException.class,
+                () -> executor.call(() -> dynamoDb.getItem(GetItemRequest.builder().build())));
+
+        assertSame(conditionFailed, thrown);
+        assertEquals(1, dynamoDb.calls);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.state());
+    }
+
+    @Test
+    void failsAsUnavailableOnceTheAttemptsRunOut() {
+        FailingDynamoDbClient dynamoDb = new FailingDynamoDbClient(Integer.MAX_VALUE, ResilientExecutorTest::throttle);
+
+        ServiceUnavailableException thrown = assertThrows(ServiceUnavailableException.class,
+                () -> executor.call(() -> dynamoDb.getItem(GetItemRequest.builder().build())));
+
+        assertEquals(8, dynamoDb.calls);
+        assertTrue(thrown.getCause() instanceof ProvisionedThroughputExceededException);
+        assertTrue(thrown.getRetryAfterSeconds() >= 1);
+    }
+
+    @Test
+    void openCircuitRejectsWithoutCallingTheService() {
+        ResilientExecutor tripping = new ResilientExecutor(rateLimiter, new CircuitBreaker(3, 5000, Clock.systemUTC()), 1, 2);
+        FailingDynamoDbClient dynamoDb = new FailingDynamoDbClient(Integer.MAX_VALUE,
+                () -> DynamoDbException.builder().statusCode(503).build());
+
+        ServiceUnavailableException thrown = assertThrows(ServiceUnavailableException.class,
+                () -> tripping.call(() -> dynamoDb.getItem(GetItemRequest.builder().build())));
+
+        assertEquals(3, dynamoDb.calls);
+        assertEquals(5, thrown.getRetryAfterSeconds());
+        assertThrows(ServiceUnavailableException.class,
+                () -> tripping.call(() -> dynamoDb.getItem(GetItemRequest.builder().build())));
+        assertEquals(3, dynamoDb.calls);
+    }
+
+    private static RuntimeException throttle() {
+        return ProvisionedThroughputExceededException.builder()
+                .statusCode(400)
+                .awsErrorDetails(AwsErrorDetails.builder()
+                        .errorCode("ProvisionedThroughputExceededException")
+                        .serviceName("DynamoDb")
+                        .build())
+                .build();
+    }
+
+    private static class FailingDynamoDbClient implements DynamoDbClient {
+        private final int failures;
+        private final Supplier<RuntimeException> error;
+        private int calls;
+
+        FailingDynamoDbClient(int failures, Supplier<RuntimeException> error) {
+            this.failures = failures;
+            this.error = error;
+        }
+
+        @Override
+        public synchronized GetItemResponse getItem(GetItemRequest request) {
+            if (calls++ < failures) {
+                throw error.get();
+            }
+            return GetItemResponse.builder().build();
+        }
+
+        @Override
+        public String serviceName() { return SERVICE_NAME; }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.todoapp.services;
+
+import com.todoapp.models.Task;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.sns.SnsClient;
+import software.amazon.awssdk.services.sns.model.InvalidParameterException;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequest;
+import software.amazon.awssdk.services.sns.model.PublishBatchResponse;
+import software.amazon.awssdk.services.sns.model.PublishBatchResultEntry;
+import software.amazon.awssdk.services.sns.model.SetSubscriptionAttributesRequest;
+import software.amazon.awssdk.services.sns.model.SetSubscriptionAttributesResponse;
+import software.amazon.awssdk.services.sns.model.SubscribeRequest;
+import software.amazon.awssdk.services.sns.model.SubscribeResponse;
+import software.amazon.awssdk.services.sns.model.Subscription;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class NotificationServiceTest {
+    private static final String TOPIC_ARN = "arn:aws:sns:local:000000000000:TaskNotifications";
+
+    private final RecordingSnsClient sns = new RecordingSnsClient();
+    private final NotificationService notificationService = new NotificationService(sns, TOPIC_ARN, true);
+
+    @Test
+    void subscriptionOnlyMatchesItsOwnAddress() {
+        notificationService.subscribeUser("ana@example.com");
+
+        assertEquals("{\"email\":[\"ana@example.com\"]}", sns.subscribes.get(0).attributes().get("FilterPolicy"));
+    }
+
+    @Test
+    void existingSubscriptionWithoutPolicyGetsItSet() {
+        sns.existing.add("ana@example.com");
+
+        notificationService.subscribeUser("ana@example.com");
+
+        assertEquals(2, sns.subscribes.size());
+        assertEquals(TOPIC_ARN + ":ana@example.com", sns.attributeUpdates.get(0).subscriptionArn());
+        assertEquals("{\"email\":[\"ana@example.com\"]}", sns.attributeUpdates.get(0).attributeValue());
+    }
+
+    @Test
+    void digestCarriesTheAttributeThePolicyFiltersOn() {
+        Task task = new Task();
+        task.setUserId("user-1");
+        task.setTaskId("task-1");
+        task.setUserEmail("ana@example.com");
+
+        notificationService.sendTaskExpiryNotifications(List.of(task));
+
+        assertEquals("ana@example.com",
+                sns.publishes.get(0).publishBatchRequestEntries().get(0).messageAttributes().get("email").stringValue());
+    }
+
+    @Test
+    void backfillSkipsPendingAndNonEmailSubscriptions() {
+        List<Subscription> subscriptions = List.of(
+                subscription(TOPIC_ARN + ":1", "email", "ana@example.com"),
+                subscription("PendingConfirmation", "email", "ben@example.com"),
+                subscription(TOPIC_ARN + ":2", "sqs", "arn:aws:sqs:local:000000000000:audit"));
+
+        int updated = notificationService.setFilterPolicies(subscriptions);
+
+        assertEquals(1, updated);
+        assertEquals(TOPIC_ARN + ":1", sns.attributeUpdates.get(0).subscriptionArn());
+        assertEquals("{\"email\":[\"ana@example.com\"]}", sns.attributeUpdates.get(0).attributeValue());
+    }
+
+    private static Subscription subscription(String arn, String protocol, String endpoint) {
+        return Subscription.builder().subscriptionArn(arn).protocol(protocol).endpoint(endpoint).topicArn(TOPIC_ARN).build();
+    }
+
+    private static class RecordingSnsClient implements SnsClient {
+        final List<SubscribeRequest> subscribes = new ArrayList<>();
+        final List<PublishBatchRequest> publishes = new ArrayList<>();
+        final List<SetSubscriptionAttributesRequest> attributeUpdates = new ArrayList<>();
+        // Addresses already subscribed without a filter policy
+        final Set<String> existing = new HashSet<>();
+
+        @Override
+        public synchronized SubscribeResponse subscribe(SubscribeRequest request) {
+            subscribes.add(request);
+            if (existing.contains(request.endpoint())) {
+                if (request.hasAttributes()) {
+                    throw InvalidParameterException.builder()
+                            .message("Invalid parameter: Attributes Reason: Subscription already exists with different attributes")
+                            .build();
+                }
+                return SubscribeResponse.builder().subscriptionArn(TOPIC_ARN + ":" + request.endpoint()).build();
+            }
+            return SubscribeResponse.builder().subscriptionArn("pending confirmation").build();
+        }
+
+        @Override
+        public synchronized PublishBatchResponse publishBatch(PublishBatchRequest request) {
+            publishes.add(request);
+            List<PublishBatchResultEntry> successful = new ArrayList<>();
+            request.publishBatchRequestEntries().forEach(entry ->
+                    successful.add(PublishBatchResultEntry.builder().id(entry.id()).build()));
+            return PublishBatchResponse.builder().successful(successful).build();
+        }
+
+        @Override
+        public synchronized SetSubscriptionAttributesResponse setSubscriptionAttributes(
+                SetSubscriptionAttributesRequest request) {
+            attributeUpdates.add(request);
+            return SetSubscriptionAttributesResponse.builder().build();
+        }
+
+        @Override
+        public String serviceName() { return SERVICE_NAME; }
+
+        @Override
+        public void close() {
+        }
+    }
+}
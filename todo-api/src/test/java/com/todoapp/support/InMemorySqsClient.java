@@ -0,0 +1,130 @@
+package com.todoapp.support;
+
+import com.amazonaws.services.lambda.runtime.events.SQSEvent;
+import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResultEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageResponse;
+import software.amazon.awssdk.services.sqs.model.SqsException;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stand-in for a standard SQS queue driven by a test clock. A sent message becomes receivable once
+ * the clock reaches its send time plus DelaySeconds; delays above the 15-minute SQS limit are rejected
+ * as SQS would. Receiving removes the message, as a successful Lambda batch would delete it.
+ */
+public class InMemorySqsClient implements SqsClient {
+    private static final int MAX_DELAY_SECONDS = 900;
+
+    private final Clock clock;
+    private final List<QueuedMessage> queued = new ArrayList<>();
+    private final List<Integer> sentDelays = new ArrayList<>();
+    private long nextMessageId;
+    private boolean failSends;
+
+    public InMemorySqsClient(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Makes every following send fail: batch entries are reported as failed, single sends throw.
+     */
+    public synchronized void failSends(boolean failSends) {
+        this.failSends = failSends;
+    }
+
+    @Override
+    public synchronized SendMessageBatchResponse sendMessageBatch(SendMessageBatchRequest request) {
+        List<SendMessageBatchResultEntry> successful = new ArrayList<>();
+        List<BatchResultErrorEntry> failed = new ArrayList<>();
+        for (SendMessageBatchRequestEntry entry : request.entries()) {
+            int delay = entry.delaySeconds() != null ? entry.delaySeconds() : 0;
+            if (delay < 0 || delay > MAX_DELAY_SECONDS) {
+                throw SqsException.builder().statusCode(400).message("DelaySeconds out of range: " + delay).build();
+            }
+            if (failSends) {
+                failed.add(BatchResultErrorEntry.builder().id(entry.id()).code("InternalError").senderFault(false).build());
+                continue;
+            }
+            String messageId = "m-" + nextMessageId++;
+            queued.add(new QueuedMessage(messageId, entry.messageBody(), clock.millis() + delay * 1000L));
+            sentDelays.add(delay);
+            successful.add(SendMessageBatchResultEntry.builder().id(entry.id()).messageId(messageId).build());
+        }
+        return SendMessageBatchResponse.builder().successful(successful).failed(failed).build();
+    }
+
+    @Override
+    public synchronized SendMessageResponse sendMessage(SendMessageRequest request) {
+        if (failSends) {
+            throw SqsException.builder().statusCode(500).message("InternalError").build();
+        }
+        int delay = request.delaySeconds() != null ? request.delaySeconds() : 0;
+        String messageId = "m-" + nextMessageId++;
+        queued.add(new QueuedMessage(messageId, request.messageBody(), clock.millis() + delay * 1000L));
+        sentDelays.add(delay);
+        return SendMessageResponse.builder().messageId(messageId).build();
+    }
+
+    /**
+     * Removes and returns the messages visible at the current clock time, as one Lambda SQS batch.
+     */
+    public synchronized SQSEvent receive() {
+        long now = clock.millis();
+        List<SQSEvent.SQSMessage> records = new ArrayList<>();
+        queued.removeIf(message -> {
+            if (message.visibleAtMillis() > now) {
+                return false;
+            }
+            SQSEvent.SQSMessage record = new SQSEvent.SQSMessage();
+            record.setMessageId(message.messageId());
+            record.setBody(message.body());
+            records.add(record);
+            return true;
+        });
+        SQSEvent event = new SQSEvent();
+        event.setRecords(records);
+        return event;
+    }
+
+    /**
+     * Time at which the earliest queued message becomes visible, or -1 if the queue is empty.
+     */
+    public synchronized long nextVisibleAtMillis() {
+        return queued.stream().mapToLong(QueuedMessage::visibleAtMillis).min().orElse(-1);
+    }
+
+    public synchronized int size() {
+        return queued.size();
+    }
+
+    /**
+     * DelaySeconds of every accepted message, in send order.
+     */
+    public synchronized List<Integer> sentDelays() {
+        return new ArrayList<>(sentDelays);
+    }
+
+    /**
+     * Enqueues a body as-is, visible immediately, bypassing the handler's serialization.
+     */
+    public synchronized void putRaw(String messageId, String body) {
+        queued.add(new QueuedMessage(messageId, body, clock.millis()));
+    }
+
+    @Override
+    public String serviceName() { return SERVICE_NAME; }
+
+    @Override
+    public void close() {
+    }
+
+    private record QueuedMessage(String messageId, String body, long visibleAtMillis) {}
+}
@@ -0,0 +1,68 @@
+package com.todoapp.support;
+
+import com.amazonaws.services.lambda.runtime.ClientContext;
+import com.amazonaws.services.lambda.runtime.CognitoIdentity;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lambda context for handler tests. Log lines are kept so tests can inspect them.
+ */
+public class TestContext implements Context {
+    private final List<String> logLines = new ArrayList<>();
+    private final LambdaLogger logger = new LambdaLogger() {
+        @Override
+        public void log(String message) {
+            synchronized (logLines) {
+                logLines.add(message);
+            }
+        }
+
+        @Override
+        public void log(byte[] message) {
+            log(new String(message));
+        }
+    };
+
+    public List<String> logLines() {
+        synchronized (logLines) {
+            return new ArrayList<>(logLines);
+        }
+    }
+
+    @Override
+    public String getAwsRequestId() { return "test-request"; }
+
+    @Override
+    public String getLogGroupName() { return "test"; }
+
+    @Override
+    public String getLogStreamName() { return "test"; }
+
+    @Override
+    public String getFunctionName() { return "todo-api-test"; }
+
+    @Override
+    public String getFunctionVersion() { return "$LATEST"; }
+
+    @Override
+    public String getInvokedFunctionArn() { return "arn:aws:lambda:local:000000000000:function:todo-api-test"; }
+
+    @Override
+    public CognitoIdentity getIdentity() { return null; }
+
+    @Override
+    public ClientContext getClientContext() { return null; }
+
+    @Override
+    public int getRemainingTimeInMillis() { return 30_000; }
+
+    @Override
+    public int getMemoryLimitInMB() { return 512; }
+
+    @Override
+    public LambdaLogger getLogger() { return logger; }
+}
@@ -0,0 +1,33 @@
+package com.todoapp.utils;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CursorCodecTest {
+    private static final Map<String, AttributeValue> KEY = Map.of(
+            "userId", AttributeValue.fromS("user-1"),
+            "taskId", AttributeValue.fromS("task-1"),
+            "userStatus", AttributeValue.fromS("user-1#Pending"));
+
+    @Test
+    void scopedCursorRoundTrips() {
+        String token = CursorCodec.encode(KEY, "Pending|null|null|null|false");
+
+        assertEquals(KEY, CursorCodec.decode(token, "Pending|null|null|null|false"));
+    }
+
+    @Test
+    void cursorFromAnotherQueryIsRejected() {
+        String token = CursorCodec.encode(KEY, "Pending|null|null|null|false");
+
+        assertThrows(IllegalArgumentException.class, () -> CursorCodec.decode(token, "Completed|null|null|null|false"));
+        assertThrows(IllegalArgumentException.class, () -> CursorCodec.decode(token));
+        assertThrows(IllegalArgumentException.class,
+                () -> CursorCodec.decode(CursorCodec.encode(KEY), "Pending|null|null|null|false"));
+    }
+}
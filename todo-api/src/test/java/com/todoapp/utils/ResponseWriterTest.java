@@ -0,0 +1,44 @@
+package com.todoapp.utils;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ResponseWriterTest {
+    private static final String LARGE_BODY = "[" + "\"x\",".repeat(600) + "\"x\"]";
+
+    private final ResponseWriter writer = new ResponseWriter(JsonUtil.mapper());
+
+    @Test
+    void bodyStaysTextWithItsEtag() {
+        APIGatewayProxyResponseEvent response = writer.writeJson(200, LARGE_BODY.getBytes(StandardCharsets.UTF_8),
+                Map.of("ETag", "\"abc\""));
+
+        assertEquals(LARGE_BODY, response.getBody());
+        assertNull(response.getIsBase64Encoded());
+        assertNull(response.getHeaders().get("Content-Encoding"));
+        assertEquals("\"abc\"", response.getHeaders().get("ETag"));
+    }
+
+    @Test
+    void notModifiedHasNoBody() {
+        APIGatewayProxyResponseEvent response = writer.writeJson(304, null, Map.of("ETag", "\"abc\""));
+
+        assertEquals(304, response.getStatusCode());
+        assertNull(response.getBody());
+        assertEquals("\"abc\"", response.getHeaders().get("ETag"));
+    }
+
+    @Test
+    void serializesObjects() {
+        APIGatewayProxyResponseEvent response = writer.write(400, Map.of("error", "bad"), Map.of());
+
+        assertEquals("{\"error\":\"bad\"}", response.getBody());
+        assertEquals("application/json", response.getHeaders().get("Content-Type"));
+    }
+}
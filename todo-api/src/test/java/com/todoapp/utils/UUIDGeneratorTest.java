@@ -0,0 +1,85 @@
+package com.todoapp.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Ids are fed clock readings at or just before the current time, so the shared last-id state stays
+ * close to the real clock for ids generated after these tests.
+ */
+class UUIDGeneratorTest {
+
+    @Test
+    void idsWithinOneMillisecondIncrease() {
+        long now = System.currentTimeMillis();
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            ids.add(UUIDGenerator.generate(now));
+        }
+
+        assertStrictlyIncreasing(ids);
+    }
+
+    @Test
+    void idsKeepIncreasingWhenTheClockStepsBack() {
+        long now = System.currentTimeMillis();
+        List<UUID> ids = new ArrayList<>();
+        ids.add(UUIDGenerator.generate(now));
+        ids.add(UUIDGenerator.generate(now - 5000));
+        ids.add(UUIDGenerator.generate(now - 1));
+        ids.add(UUIDGenerator.generate(now));
+
+        assertStrictlyIncreasing(ids);
+    }
+
+    @Test
+    void counterOverflowCarriesIntoTheTimestamp() {
+        long now = System.currentTimeMillis();
+        List<UUID> ids = new ArrayList<>();
+        // One more than the 12-bit counter holds
+        for (int i = 0; i < 4097; i++) {
+            ids.add(UUIDGenerator.generate(now - 2));
+        }
+
+        assertStrictlyIncreasing(ids);
+    }
+
+    @Test
+    void idsCarryVersion7AndTheRfcVariant() {
+        UUID id = UUIDGenerator.generate();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+    }
+
+    @Test
+    void timestampAndLowerBoundRoundTrip() {
+        long now = System.currentTimeMillis();
+        String id = UUIDGenerator.generate(now).toString();
+        long timestamp = UUIDGenerator.timestampOf(id);
+
+        assertTrue(timestamp >= now);
+        assertEquals(timestamp, UUIDGenerator.timestampOf(UUIDGenerator.lowerBound(timestamp)));
+        assertEquals(7, UUID.fromString(UUIDGenerator.lowerBound(timestamp)).version());
+        assertTrue(UUIDGenerator.lowerBound(timestamp).compareTo(id) <= 0);
+        assertTrue(id.compareTo(UUIDGenerator.lowerBound(timestamp + 1)) < 0);
+    }
+
+    private static void assertStrictlyIncreasing(List<UUID> ids) {
+        for (int i = 1; i < ids.size(); i++) {
+            UUID previous = ids.get(i - 1);
+            UUID current = ids.get(i);
+            assertTrue(Long.compareUnsigned(previous.getMostSignificantBits(), current.getMostSignificantBits()) < 0,
+                    previous + " is not before " + current);
+            // The canonical string form is what DynamoDB sorts on
+            assertTrue(previous.toString().compareTo(current.toString()) < 0);
+            assertTrue(UUIDGenerator.timestampOf(previous.toString()) <= UUIDGenerator.timestampOf(current.toString()));
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.todoapp.benchmarks;
+
+import com.todoapp.handlers.TaskRouter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * First construction of the API function handler in a fresh JVM: class loading, static initialization of the SDK
+ * clients and the JSON mapper, roughly what a Lambda init phase pays before SnapStart. Every
+ * measurement runs in its own fork so nothing is already loaded. No AWS calls are made.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class ColdStartBenchmark {
+    @Benchmark
+    public TaskRouter constructTaskRouter() {
+        return new TaskRouter();
+    }
+}
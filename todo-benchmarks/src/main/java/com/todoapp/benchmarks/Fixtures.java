@@ -0,0 +1,126 @@
+package com.todoapp.benchmarks;
+
+import com.amazonaws.services.lambda.runtime.events.DynamodbEvent;
+import com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue;
+import com.amazonaws.services.lambda.runtime.events.models.dynamodb.StreamRecord;
+import com.todoapp.models.Task;
+import com.todoapp.models.TaskSchema;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Deterministic test data shaped like production items: one user, a mix of statuses,
+ * descriptions of varying length and deadlines spread over the coming weeks.
+ */
+final class Fixtures {
+    static final String USER_ID = "0f4c2a9e-5b7d-4d1e-9a53-3c8e2f6b1d70";
+    static final String USER_EMAIL = "jane.doe@example.com";
+
+    private static final String[] STATUSES = {"Pending", "Pending", "Pending", "Completed", "Expired"};
+    private static final String[] WORDS = {"review", "quarterly", "report", "call", "dentist", "renew",
+            "passport", "groceries", "deploy", "release", "notes", "invoice", "team", "meeting", "plan"};
+    private static final long BASE_MILLIS = 1_767_225_600_000L; // 2026-01-01T00:00:00Z
+
+    private Fixtures() {}
+
+    static List<Task> tasks(int count) {
+        Random random = new Random(42);
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(task(random, i));
+        }
+        return tasks;
+    }
+
+    static Task task(Random random, int i) {
+        long deadline = BASE_MILLIS + random.nextInt(60 * 24 * 30) * 60_000L;
+        String status = STATUSES[random.nextInt(STATUSES.length)];
+
+        Task task = new Task();
+        task.setUserId(USER_ID);
+        task.setTaskId(new UUID(random.nextLong(), random.nextLong()).toString());
+        task.setUserEmail(USER_EMAIL);
+        task.setDescription(description(random));
+        task.setDate(LocalDate.of(2026, 1, 1).plusDays(i % 30).toString());
+        task.setStatus(status);
+        task.setDeadline(deadline);
+        task.setCreatedAt(BASE_MILLIS - random.nextInt(86_400) * 1000L);
+        task.setVersion(1L + random.nextInt(5));
+        task.setUserStatus(TaskSchema.userStatus(USER_ID, status));
+        if ("Pending".equals(status)) {
+            task.setDeadlineBucket(deadline / 60_000);
+        }
+        return task;
+    }
+
+    static String createTaskRequestJson() {
+        return "{\"description\":\"Renew passport before the summer trip\",\"date\":\"2026-03-14\"}";
+    }
+
+    static String taskJson() {
+        return "{\"taskId\":\"6f1d2c3b-8a9e-4f70-b1c2-d3e4f5a6b7c8\",\"userId\":\"" + USER_ID + "\","
+                + "\"userEmail\":\"" + USER_EMAIL + "\",\"description\":\"Renew passport before the summer trip\","
+                + "\"date\":\"2026-03-14\",\"status\":\"Pending\",\"deadline\":1773446400000,"
+                + "\"createdAt\":1767225600000,\"version\":1}";
+    }
+
+    /**
+     * Stream records as the stream processor receives them once event filtering has dropped
+     * everything but inserts of Pending tasks.
+     */
+    static List<DynamodbEvent.DynamodbStreamRecord> streamRecords(int count) {
+        Random random = new Random(7);
+        List<DynamodbEvent.DynamodbStreamRecord> records = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Task task = task(random, i);
+            task.setStatus("Pending");
+            records.add(record("INSERT", null, image(task), i));
+        }
+        return records;
+    }
+
+    private static DynamodbEvent.DynamodbStreamRecord record(String eventName, Map<String, AttributeValue> oldImage,
+                                                             Map<String, AttributeValue> newImage, int sequence) {
+        StreamRecord streamRecord = new StreamRecord();
+        streamRecord.setOldImage(oldImage);
+        streamRecord.setNewImage(newImage);
+        streamRecord.setSequenceNumber(String.valueOf(sequence));
+
+        DynamodbEvent.DynamodbStreamRecord record = new DynamodbEvent.DynamodbStreamRecord();
+        record.setEventName(eventName);
+        record.setDynamodb(streamRecord);
+        return record;
+    }
+
+    private static Map<String, AttributeValue> image(Task task) {
+        Map<String, AttributeValue> image = new HashMap<>();
+        image.put("userId", new AttributeValue().withS(task.getUserId()));
+        image.put("taskId", new AttributeValue().withS(task.getTaskId()));
+        image.put("userEmail", new AttributeValue().withS(task.getUserEmail()));
+        image.put("description", new AttributeValue().withS(task.getDescription()));
+        image.put("date", new AttributeValue().withS(task.getDate()));
+        image.put("status", new AttributeValue().withS(task.getStatus()));
+        image.put("deadline", new AttributeValue().withN(String.valueOf(task.getDeadline())));
+        image.put("createdAt", new AttributeValue().withN(String.valueOf(task.getCreatedAt())));
+        image.put("version", new AttributeValue().withN(String.valueOf(task.getVersion())));
+        return image;
+    }
+
+    private static String description(Random random) {
+        int words = 2 + random.nextInt(12);
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                description.append(' ');
+            }
+            description.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return description.toString();
+    }
+}
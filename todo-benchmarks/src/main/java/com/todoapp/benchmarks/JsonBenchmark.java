@@ -0,0 +1,70 @@
+package com.todoapp.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todoapp.models.CreateTaskRequest;
+import com.todoapp.models.Task;
+import com.todoapp.utils.JsonUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson (de)serialization of the model classes through the shared mapper and its codecs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBenchmark {
+    @Param({"1", "100", "10000"})
+    private int taskCount;
+
+    private ObjectMapper objectMapper;
+    private List<Task> tasks;
+    private Task task;
+    private String taskJson;
+    private String createTaskRequestJson;
+
+    @Setup
+    public void setUp() {
+        objectMapper = JsonUtil.mapper();
+        tasks = Fixtures.tasks(taskCount);
+        task = tasks.get(0);
+        taskJson = Fixtures.taskJson();
+        createTaskRequestJson = Fixtures.createTaskRequestJson();
+    }
+
+    @Benchmark
+    public byte[] serializeTaskList() throws IOException {
+        return objectMapper.writeValueAsBytes(tasks);
+    }
+
+    @Benchmark
+    public String serializeTask() throws IOException {
+        return objectMapper.writeValueAsString(task);
+    }
+
+    @Benchmark
+    public Task deserializeTask() throws IOException {
+        return objectMapper.readValue(taskJson, Task.class);
+    }
+
+    @Benchmark
+    public CreateTaskRequest deserializeCreateTaskRequest() throws IOException {
+        return objectMapper.readValue(createTaskRequestJson, CreateTaskRequest.class);
+    }
+}
@@ -0,0 +1,57 @@
+package com.todoapp.benchmarks;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.todoapp.models.Task;
+import com.todoapp.utils.JsonUtil;
+import com.todoapp.utils.ResponseWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The path behind every TaskHandler response: serializing a task listing into an API Gateway
+ * response.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseBenchmark {
+    @Param({"1", "100", "1000", "10000"})
+    private int taskCount;
+
+    private ResponseWriter responseWriter;
+    private List<Task> tasks;
+    private byte[] cachedListing;
+
+    @Setup
+    public void setUp() {
+        responseWriter = new ResponseWriter(JsonUtil.mapper());
+        tasks = Fixtures.tasks(taskCount);
+        cachedListing = JsonUtil.toJsonBytes(tasks);
+    }
+
+    @Benchmark
+    public APIGatewayProxyResponseEvent writeTasks() {
+        return responseWriter.write(200, tasks, Map.of());
+    }
+
+    @Benchmark
+    public APIGatewayProxyResponseEvent writeCachedListing() {
+        return responseWriter.writeJson(200, cachedListing, Map.of());
+    }
+}
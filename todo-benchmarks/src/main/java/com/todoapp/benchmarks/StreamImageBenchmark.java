@@ -0,0 +1,68 @@
+package com.todoapp.benchmarks;
+
+import com.amazonaws.services.lambda.runtime.events.DynamodbEvent;
+import com.amazonaws.services.lambda.runtime.events.StreamsEventResponse;
+import com.todoapp.handlers.ExpiryHandler;
+import com.todoapp.models.Task;
+import com.todoapp.services.ExpiryScheduler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ExpiryHandler.processStream over a batch of Pending inserts, with the SQS send stubbed out so only
+ * record decoding and batching are measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StreamImageBenchmark {
+    @Param({"1", "100", "1000", "10000"})
+    private int recordCount;
+
+    private DynamodbEvent event;
+    private ExpiryHandler handler;
+
+    @Setup
+    public void setUp() {
+        event = new DynamodbEvent();
+        event.setRecords(Fixtures.streamRecords(recordCount));
+        // The stream path never touches the task or notification services
+        handler = new ExpiryHandler(null, null, new StubScheduler(), false, 15, Clock.systemUTC());
+    }
+
+    @Benchmark
+    public StreamsEventResponse processStream() {
+        return handler.processStream(event, null);
+    }
+
+    private static final class StubScheduler extends ExpiryScheduler {
+        private long scheduled;
+
+        StubScheduler() {
+            super(null, null, Clock.systemUTC());
+        }
+
+        @Override
+        public Set<String> schedule(Map<String, Task> tasks) {
+            scheduled += tasks.size();
+            return Set.of();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.todoapp.benchmarks;
+
+import com.todoapp.models.Task;
+import com.todoapp.models.TaskSchema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enhanced client item mapping in both directions, as paid on every put and every query page.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TableSchemaBenchmark {
+    @Param({"1", "100", "1000"})
+    private int taskCount;
+
+    private List<Task> tasks;
+    private List<Map<String, AttributeValue>> items;
+
+    @Setup
+    public void setUp() {
+        tasks = Fixtures.tasks(taskCount);
+        items = tasks.stream().map(task -> TaskSchema.TABLE_SCHEMA.itemToMap(task, true)).toList();
+    }
+
+    @Benchmark
+    public void itemToMap(Blackhole blackhole) {
+        for (Task task : tasks) {
+            blackhole.consume(TaskSchema.TABLE_SCHEMA.itemToMap(task, true));
+        }
+    }
+
+    @Benchmark
+    public void mapToItem(Blackhole blackhole) {
+        for (Map<String, AttributeValue> item : items) {
+            blackhole.consume(TaskSchema.TABLE_SCHEMA.mapToItem(item));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.todoapp.benchmarks;
+
+import com.todoapp.utils.UUIDGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Task id generation, single-threaded and under the contention of the shared worker pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UuidBenchmark {
+    @Benchmark
+    public String generateUUID() {
+        return UUIDGenerator.generateUUID();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public String generateUUIDContended() {
+        return UUIDGenerator.generateUUID();
+    }
+}
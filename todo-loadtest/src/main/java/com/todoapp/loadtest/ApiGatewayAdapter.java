@@ -0,0 +1,112 @@
+package com.todoapp.loadtest;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.todoapp.handlers.TaskRouter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Turns HTTP requests into API Gateway proxy events for TaskRouter, the function template.yaml
+ * deploys for every task route. The caller is identified by the X-User-Id header, which becomes the Cognito
+ * sub claim the authorizer would normally supply.
+ */
+final class ApiGatewayAdapter implements HttpHandler {
+    static final String USER_HEADER = "X-User-Id";
+
+    private final TaskRouter router;
+    private final boolean verbose;
+
+    ApiGatewayAdapter(TaskRouter router, boolean verbose) {
+        this.router = router;
+        this.verbose = verbose;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            APIGatewayProxyRequestEvent request = toEvent(exchange);
+            LocalContext context = new LocalContext(request.getRequestContext().getRequestId(), verbose);
+            send(exchange, router.handleRequest(request, context));
+        } catch (RuntimeException e) {
+            if (verbose) {
+                e.printStackTrace();
+            }
+            exchange.sendResponseHeaders(500, -1);
+        }
+    }
+
+    private static APIGatewayProxyRequestEvent toEvent(HttpExchange exchange) throws IOException {
+        Map<String, String> headers = new HashMap<>();
+        for (Map.Entry<String, List<String>> header : exchange.getRequestHeaders().entrySet()) {
+            headers.put(header.getKey(), String.join(",", header.getValue()));
+        }
+
+        String userId = exchange.getRequestHeaders().getFirst(USER_HEADER);
+        if (userId == null) {
+            userId = "local-user";
+        }
+        Map<String, String> claims = Map.of("sub", userId, "email", userId + "@example.com");
+
+        APIGatewayProxyRequestEvent.ProxyRequestContext requestContext = new APIGatewayProxyRequestEvent.ProxyRequestContext();
+        requestContext.setRequestId(UUID.randomUUID().toString());
+        requestContext.setHttpMethod(exchange.getRequestMethod());
+        requestContext.setAuthorizer(Map.of("claims", claims));
+
+        APIGatewayProxyRequestEvent request = new APIGatewayProxyRequestEvent();
+        request.setHttpMethod(exchange.getRequestMethod());
+        request.setPath(exchange.getRequestURI().getPath());
+        request.setHeaders(headers);
+        request.setQueryStringParameters(queryParameters(exchange.getRequestURI().getRawQuery()));
+        request.setRequestContext(requestContext);
+        request.setIsBase64Encoded(false);
+        try (InputStream body = exchange.getRequestBody()) {
+            byte[] bytes = body.readAllBytes();
+            request.setBody(bytes.length > 0 ? new String(bytes, StandardCharsets.UTF_8) : null);
+        }
+        return request;
+    }
+
+    private static Map<String, String> queryParameters(String rawQuery) {
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return null;
+        }
+        Map<String, String> parameters = new HashMap<>();
+        for (String pair : rawQuery.split("&")) {
+            int separator = pair.indexOf('=');
+            String name = separator < 0 ? pair : pair.substring(0, separator);
+            String value = separator < 0 ? "" : pair.substring(separator + 1);
+            parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    private static void send(HttpExchange exchange, APIGatewayProxyResponseEvent response) throws IOException {
+        if (response.getHeaders() != null) {
+            response.getHeaders().forEach((name, value) -> exchange.getResponseHeaders().set(name, value));
+        }
+        String body = response.getBody();
+        if (body == null) {
+            exchange.sendResponseHeaders(response.getStatusCode(), -1);
+            return;
+        }
+        byte[] bytes = Boolean.TRUE.equals(response.getIsBase64Encoded())
+                ? Base64.getDecoder().decode(body)
+                : body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(response.getStatusCode(), bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.todoapp.loadtest;
+
+import java.net.URI;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Load test settings, parsed from --name value arguments.
+ */
+record LoadConfig(int users, int concurrency, int durationSeconds, int warmupSeconds, int seedTasks,
+                  Map<LoadGenerator.Operation, Integer> mix, boolean gzip, URI target, int port, int capacity,
+                  boolean verbose) {
+
+    static final String USAGE = """
+            Usage: java -jar loadtest.jar [options]
+              --users N          distinct users (default 100)
+              --concurrency N    concurrent in-flight requests (default 32)
+              --duration S       measured seconds (default 30)
+              --warmup S         unmeasured seconds before measuring (default 10)
+              --seed-tasks N     tasks created per user before the run (default 20)
+              --mix SPEC         operation weights (default create=25,list=45,update=20,delete=10)
+              --gzip BOOL        send Accept-Encoding: gzip on listings; only a --target API compresses (default true)
+              --target URL       load an already running API instead of the embedded one
+              --port N           port of the embedded API (default: any free port)
+              --capacity N       DynamoDB calls/s the embedded table serves before throttling (default unlimited)
+              --verbose          print handler logs and errors
+              --help             show this message
+            """;
+
+    static LoadConfig parse(String[] args) {
+        int users = 100;
+        int concurrency = 32;
+        int duration = 30;
+        int warmup = 10;
+        int seedTasks = 20;
+        String mix = "create=25,list=45,update=20,delete=10";
+        boolean gzip = true;
+        URI target = null;
+        int port = 0;
+        int capacity = 0;
+        boolean verbose = false;
+
+        for (int i = 0; i < args.length; i++) {
+            String name = args[i];
+            if ("--verbose".equals(name)) {
+                verbose = true;
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + name);
+            }
+            String value = args[++i];
+            switch (name) {
+                case "--users" -> users = Integer.parseInt(value);
+                case "--concurrency" -> concurrency = Integer.parseInt(value);
+                case "--duration" -> duration = Integer.parseInt(value);
+                case "--warmup" -> warmup = Integer.parseInt(value);
+                case "--seed-tasks" -> seedTasks = Integer.parseInt(value);
+                case "--mix" -> mix = value;
+                case "--gzip" -> gzip = Boolean.parseBoolean(value);
+                case "--target" -> target = URI.create(value.endsWith("/") ? value : value + "/");
+                case "--port" -> port = Integer.parseInt(value);
+                case "--capacity" -> capacity = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown option " + name);
+            }
+        }
+        if (users < 1 || concurrency < 1 || duration < 1 || warmup < 0 || seedTasks < 0) {
+            throw new IllegalArgumentException("Counts and durations must be positive");
+        }
+        if (capacity < 0) {
+            throw new IllegalArgumentException("--capacity must not be negative");
+        }
+        return new LoadConfig(users, concurrency, duration, warmup, seedTasks, parseMix(mix), gzip, target, port, capacity, verbose);
+    }
+
+    private static Map<LoadGenerator.Operation, Integer> parseMix(String spec) {
+        Map<LoadGenerator.Operation, Integer> mix = new EnumMap<>(LoadGenerator.Operation.class);
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + entry);
+            }
+            mix.put(LoadGenerator.Operation.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,272 @@
+package com.todoapp.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todoapp.utils.JsonUtil;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load: a fixed number of workers each send the next request as soon as the previous
+ * one completes. Every request picks a random user and an operation from the configured mix, and
+ * its latency goes into that operation's HDR histogram once the warmup is over.
+ */
+final class LoadGenerator {
+    enum Operation { CREATE, LIST, UPDATE, DELETE }
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.SECONDS.toMicros(60);
+    private static final String[] STATUSES = {"Pending", "Completed"};
+
+    private final URI baseUri;
+    private final LoadConfig config;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = JsonUtil.mapper();
+    private final Map<String, ConcurrentLinkedDeque<String>> taskIdsByUser = new ConcurrentHashMap<>();
+    private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final Operation[] weightedOperations;
+
+    private volatile boolean recording;
+
+    LoadGenerator(URI baseUri, LoadConfig config) {
+        this.baseUri = baseUri;
+        this.config = config;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(Math.max(4, config.concurrency() / 4)))
+                .build();
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new Recorder(HIGHEST_TRACKABLE_MICROS, 3));
+            errors.put(operation, new LongAdder());
+        }
+        this.weightedOperations = weigh(config.mix());
+    }
+
+    /**
+     * Gives every user a starting set of tasks through the batch endpoint, so listings have realistic sizes.
+     */
+    void seed() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(config.concurrency());
+        try {
+            List<Future<?>> seeding = new ArrayList<>();
+            for (int u = 0; u < config.users(); u++) {
+                String userId = userId(u);
+                seeding.add(executor.submit(() -> {
+                    seedUser(userId);
+                    return null;
+                }));
+            }
+            for (Future<?> future : seeding) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    void run(PrintStream out) throws Exception {
+        ExecutorService workers = Executors.newFixedThreadPool(config.concurrency());
+        long start = System.nanoTime();
+        long warmupEnd = start + TimeUnit.SECONDS.toNanos(config.warmupSeconds());
+        long end = warmupEnd + TimeUnit.SECONDS.toNanos(config.durationSeconds());
+
+        for (int i = 0; i < config.concurrency(); i++) {
+            workers.submit(() -> {
+                while (System.nanoTime() < end) {
+                    execute(weightedOperations[ThreadLocalRandom.current().nextInt(weightedOperations.length)]);
+                }
+            });
+        }
+
+        TimeUnit.NANOSECONDS.sleep(warmupEnd - System.nanoTime());
+        // Discard everything recorded during warmup
+        recorders.values().forEach(Recorder::reset);
+        errors.values().forEach(LongAdder::reset);
+        recording = true;
+
+        workers.shutdown();
+        workers.awaitTermination(config.durationSeconds() + 120L, TimeUnit.SECONDS);
+        recording = false;
+        report(out, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - warmupEnd) / 1000.0);
+    }
+
+    private void execute(Operation operation) {
+        String userId = userId(ThreadLocalRandom.current().nextInt(config.users()));
+        ConcurrentLinkedDeque<String> taskIds = taskIdsByUser.computeIfAbsent(userId, k -> new ConcurrentLinkedDeque<>());
+
+        String taskId = null;
+        if (operation == Operation.UPDATE || operation == Operation.DELETE) {
+            taskId = taskIds.pollFirst();
+            if (taskId == null) {
+                // Nothing left to change for this user
+                operation = Operation.CREATE;
+            }
+        }
+
+        HttpRequest request = switch (operation) {
+            case CREATE -> request(userId, "/tasks").POST(body(createBody())).build();
+            case LIST -> listRequest(userId);
+            case UPDATE -> request(userId, "/tasks/" + taskId).PUT(body(updateBody())).build();
+            case DELETE -> request(userId, "/tasks/" + taskId).DELETE().build();
+        };
+
+        long startNanos = System.nanoTime();
+        try {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+            boolean ok = response.statusCode() < 400;
+            if (recording) {
+                recorders.get(operation).recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+                if (!ok) {
+                    errors.get(operation).increment();
+                }
+            }
+            if (ok && operation == Operation.CREATE) {
+                taskIds.addLast(objectMapper.readTree(response.body()).path("taskId").asText());
+            } else if (ok && operation == Operation.UPDATE) {
+                taskIds.addLast(taskId);
+            }
+        } catch (Exception e) {
+            if (recording) {
+                errors.get(operation).increment();
+            }
+            if (taskId != null && operation == Operation.UPDATE) {
+                taskIds.addLast(taskId);
+            }
+        }
+    }
+
+    private void seedUser(String userId) throws Exception {
+        int remaining = config.seedTasks();
+        while (remaining > 0) {
+            int count = Math.min(remaining, 500);
+            StringBuilder body = new StringBuilder("{\"operations\":[");
+            for (int i = 0; i < count; i++) {
+                String create = createBody();
+                body.append(i > 0 ? "," : "").append("{\"op\":\"create\",").append(create, 1, create.length());
+            }
+            body.append("]}");
+
+            HttpResponse<String> response = httpClient.send(
+                    request(userId, "/tasks/batch").POST(body(body.toString())).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Seeding failed with status " + response.statusCode() + ": " + response.body());
+            }
+            ConcurrentLinkedDeque<String> taskIds = taskIdsByUser.computeIfAbsent(userId, k -> new ConcurrentLinkedDeque<>());
+            for (JsonNode result : objectMapper.readTree(response.body()).path("results")) {
+                if ("succeeded".equals(result.path("status").asText())) {
+                    taskIds.add(result.path("taskId").asText());
+                }
+            }
+            remaining -= count;
+        }
+    }
+
+    private void report(PrintStream out, double seconds) {
+        out.printf("%n%-8s %10s %8s %10s %10s %10s %10s %10s%n",
+                "op", "count", "errors", "ops/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        Histogram total = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        long totalErrors = 0;
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = recorders.get(operation).getIntervalHistogram();
+            long operationErrors = errors.get(operation).sum();
+            total.add(histogram);
+            totalErrors += operationErrors;
+            printRow(out, operation.name().toLowerCase(), histogram, operationErrors, seconds);
+        }
+        printRow(out, "total", total, totalErrors, seconds);
+    }
+
+    private static void printRow(PrintStream out, String name, Histogram histogram, long errors, double seconds) {
+        out.printf("%-8s %10d %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n",
+                name,
+                histogram.getTotalCount(),
+                errors,
+                histogram.getTotalCount() / seconds,
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0);
+    }
+
+    private HttpRequest.Builder request(String userId, String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(Duration.ofSeconds(30))
+                .header(ApiGatewayAdapter.USER_HEADER, userId)
+                .header("Content-Type", "application/json");
+    }
+
+    private HttpRequest listRequest(String userId) {
+        HttpRequest.Builder builder = request(userId, listPath()).GET();
+        // API Gateway compresses large listings for a --target run; the body is never parsed, so it can stay gzipped
+        if (config.gzip()) {
+            builder.header("Accept-Encoding", "gzip");
+        }
+        return builder.build();
+    }
+
+    private static HttpRequest.BodyPublisher body(String json) {
+        return HttpRequest.BodyPublishers.ofString(json);
+    }
+
+    private static String listPath() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return switch (random.nextInt(4)) {
+            case 0 -> "/tasks";
+            case 1 -> "/tasks?limit=50";
+            case 2 -> "/tasks?status=Pending&limit=50";
+            default -> "/tasks?from=" + LocalDate.now() + "&limit=50";
+        };
+    }
+
+    private static String createBody() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return "{\"description\":\"Load test task " + random.nextInt(1_000_000) + "\","
+                + "\"date\":\"" + LocalDate.now().plusDays(random.nextInt(1, 30)) + "\"}";
+    }
+
+    private static String updateBody() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return "{\"description\":\"Updated task " + random.nextInt(1_000_000) + "\","
+                + "\"status\":\"" + STATUSES[random.nextInt(STATUSES.length)] + "\"}";
+    }
+
+    private static String userId(int index) {
+        return "load-user-" + index;
+    }
+
+    private static Operation[] weigh(Map<Operation, Integer> mix) {
+        List<Operation> weighted = new ArrayList<>();
+        mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weighted.add(operation);
+            }
+        });
+        if (weighted.isEmpty()) {
+            throw new IllegalArgumentException("Operation mix must have at least one positive weight");
+        }
+        return weighted.toArray(new Operation[0]);
+    }
+}
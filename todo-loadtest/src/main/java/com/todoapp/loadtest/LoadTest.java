@@ -0,0 +1,71 @@
+package com.todoapp.loadtest;
+
+import com.sun.net.httpserver.HttpServer;
+import com.todoapp.handlers.TaskHandler;
+import com.todoapp.handlers.TaskRouter;
+import com.todoapp.services.DynamoDBService;
+import com.todoapp.services.TaskService;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Offline end-to-end load test: TaskRouter behind an embedded HTTP server, backed by an
+ * in-memory DynamoDB Local, driven by a configurable request mix. With --target the generator
+ * runs against an existing endpoint (e.g. sam local start-api) instead.
+ */
+public class LoadTest {
+    public static void main(String[] args) throws Exception {
+        if (Arrays.asList(args).contains("--help")) {
+            System.out.print(LoadConfig.USAGE);
+            return;
+        }
+        LoadConfig config;
+        try {
+            config = LoadConfig.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(LoadConfig.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        if (config.target() != null) {
+            runLoad(config.target(), config);
+            return;
+        }
+
+        // The JDK keeps only 5 idle keep-alive connections per host by default, which would make
+        // DynamoDB calls reconnect constantly at higher concurrency
+        System.setProperty("http.maxConnections", String.valueOf(Math.max(16, config.concurrency() * 2)));
+
+        try (LocalDynamoDb dynamoDb = LocalDynamoDb.start(config.capacity())) {
+            TaskRouter router = new TaskRouter(new TaskHandler(new TaskService(new DynamoDBService(dynamoDb.client()))));
+            ExecutorService serverThreads = Executors.newFixedThreadPool(config.concurrency());
+
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", config.port()), 0);
+            server.createContext("/", new ApiGatewayAdapter(router, config.verbose()));
+            server.setExecutor(serverThreads);
+            server.start();
+            try {
+                runLoad(URI.create("http://localhost:" + server.getAddress().getPort() + "/"), config);
+            } finally {
+                server.stop(0);
+                serverThreads.shutdownNow();
+            }
+        }
+        System.exit(0);
+    }
+
+    private static void runLoad(URI baseUri, LoadConfig config) throws Exception {
+        LoadGenerator generator = new LoadGenerator(baseUri, config);
+        System.out.printf("Seeding %d users with %d tasks each against %s%n", config.users(), config.seedTasks(), baseUri);
+        generator.seed();
+        System.out.printf("Running %d workers for %ds after %ds warmup%n",
+                config.concurrency(), config.durationSeconds(), config.warmupSeconds());
+        generator.run(System.out);
+    }
+}
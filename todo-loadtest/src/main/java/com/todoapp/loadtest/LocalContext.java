@@ -0,0 +1,81 @@
+package com.todoapp.loadtest;
+
+import com.amazonaws.services.lambda.runtime.ClientContext;
+import com.amazonaws.services.lambda.runtime.CognitoIdentity;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal Lambda context for local invocations. Handler log lines are discarded unless verbose,
+ * so logging doesn't dominate the measured latency.
+ */
+final class LocalContext implements Context {
+    private static final int TIMEOUT_MILLIS = 30_000;
+
+    private final String requestId;
+    private final LambdaLogger logger;
+    private final long deadline;
+
+    LocalContext(String requestId, boolean verbose) {
+        this.requestId = requestId;
+        this.logger = verbose ? new StderrLogger() : new DiscardingLogger();
+        this.deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+    }
+
+    @Override
+    public String getAwsRequestId() { return requestId; }
+
+    @Override
+    public String getLogGroupName() { return "local"; }
+
+    @Override
+    public String getLogStreamName() { return "local"; }
+
+    @Override
+    public String getFunctionName() { return "todo-api-local"; }
+
+    @Override
+    public String getFunctionVersion() { return "$LATEST"; }
+
+    @Override
+    public String getInvokedFunctionArn() { return "arn:aws:lambda:local:000000000000:function:todo-api-local"; }
+
+    @Override
+    public CognitoIdentity getIdentity() { return null; }
+
+    @Override
+    public ClientContext getClientContext() { return null; }
+
+    @Override
+    public int getRemainingTimeInMillis() { return (int) Math.max(0, deadline - System.currentTimeMillis()); }
+
+    @Override
+    public int getMemoryLimitInMB() { return 512; }
+
+    @Override
+    public LambdaLogger getLogger() { return logger; }
+
+    private static class DiscardingLogger implements LambdaLogger {
+        @Override
+        public void log(String message) {
+        }
+
+        @Override
+        public void log(byte[] message) {
+        }
+    }
+
+    private static class StderrLogger implements LambdaLogger {
+        @Override
+        public void log(String message) {
+            System.err.println(message);
+        }
+
+        @Override
+        public void log(byte[] message) {
+            log(new String(message, StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.todoapp.loadtest;
+
+import com.amazonaws.services.dynamodbv2.local.main.ServerRunner;
+import com.amazonaws.services.dynamodbv2.local.server.DynamoDBProxyServer;
+import com.todoapp.models.TaskSchema;
+import com.todoapp.models.TombstoneSchema;
+import com.todoapp.services.DynamoDBService;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.retry.RetryPolicy;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition;
+import software.amazon.awssdk.services.dynamodb.model.BillingMode;
+import software.amazon.awssdk.services.dynamodb.model.GlobalSecondaryIndex;
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement;
+import software.amazon.awssdk.services.dynamodb.model.KeyType;
+import software.amazon.awssdk.services.dynamodb.model.LocalSecondaryIndex;
+import software.amazon.awssdk.services.dynamodb.model.Projection;
+import software.amazon.awssdk.services.dynamodb.model.ProjectionType;
+import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * In-memory DynamoDB Local listening on a free localhost port, with the TodoTasks and
+ * TodoTaskTombstones tables created as in template.yaml. It is reached over HTTP through the same
+ * SDK client stack as in Lambda.
+ */
+final class LocalDynamoDb implements AutoCloseable {
+    private final DynamoDBProxyServer server;
+    private final DynamoDbClient client;
+
+    private LocalDynamoDb(DynamoDBProxyServer server, DynamoDbClient client) {
+        this.server = server;
+        this.client = client;
+    }
+
+    /**
+     * Starts the server. With a positive {@code capacity} the client's calls beyond that many per second
+     * fail with a throttling error; the client never retries, so the service's own retries are measured.
+     */
+    static LocalDynamoDb start(int capacity) throws Exception {
+        configureNativeLibraries();
+        int port = freePort();
+        DynamoDBProxyServer server = ServerRunner.createServerFromCommandLineArgs(
+                new String[]{"-inMemory", "-disableTelemetry", "-port", String.valueOf(port)});
+        server.start();
+
+        try (DynamoDbClient setup = client(port, 0)) {
+            createTable(setup);
+        }
+        DynamoDbClient client = client(port, capacity);
+        return new LocalDynamoDb(server, client);
+    }
+
+    DynamoDbClient client() { return client; }
+
+    private static DynamoDbClient client(int port, int capacity) {
+        return DynamoDbClient.builder()
+                .endpointOverride(URI.create("http://localhost:" + port))
+                .region(Region.EU_CENTRAL_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("local", "local")))
+                .httpClient(UrlConnectionHttpClient.builder().build())
+                .overrideConfiguration(o -> {
+                    o.retryPolicy(RetryPolicy.none());
+                    if (capacity > 0) {
+                        o.addExecutionInterceptor(new ThrottleInjector(capacity));
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public void close() throws Exception {
+        client.close();
+        server.stop();
+    }
+
+    private static void createTable(DynamoDbClient client) {
+        client.createTable(r -> r.tableName(DynamoDBService.TABLE_NAME)
+                .billingMode(BillingMode.PAY_PER_REQUEST)
+                .attributeDefinitions(
+                        attribute("userId", ScalarAttributeType.S),
+                        attribute("taskId", ScalarAttributeType.S),
+                        attribute("deadline", ScalarAttributeType.N),
+                        attribute("deadlineBucket", ScalarAttributeType.N),
+                        attribute("userStatus", ScalarAttributeType.S),
+                        attribute("date", ScalarAttributeType.S),
+                        attribute("updatedAt", ScalarAttributeType.N))
+                .keySchema(key("userId", KeyType.HASH), key("taskId", KeyType.RANGE))
+                .globalSecondaryIndexes(
+                        index(TaskSchema.DEADLINE_BUCKET_INDEX, "deadlineBucket", "deadline", ProjectionType.KEYS_ONLY),
+                        index(TaskSchema.USER_STATUS_INDEX, "userStatus", "taskId", ProjectionType.ALL),
+                        index(TaskSchema.USER_DATE_INDEX, "userId", "date", ProjectionType.ALL),
+                        index(TaskSchema.USER_UPDATED_INDEX, "userId", "updatedAt", ProjectionType.ALL)));
+
+        client.createTable(r -> r.tableName(DynamoDBService.TOMBSTONE_TABLE_NAME)
+                .billingMode(BillingMode.PAY_PER_REQUEST)
+                .attributeDefinitions(
+                        attribute("userId", ScalarAttributeType.S),
+                        attribute("taskId", ScalarAttributeType.S),
+                        attribute("deletedAt", ScalarAttributeType.N))
+                .keySchema(key("userId", KeyType.HASH), key("taskId", KeyType.RANGE))
+                .localSecondaryIndexes(LocalSecondaryIndex.builder()
+                        .indexName(TombstoneSchema.USER_DELETED_INDEX)
+                        .keySchema(key("userId", KeyType.HASH), key("deletedAt", KeyType.RANGE))
+                        .projection(Projection.builder().projectionType(ProjectionType.KEYS_ONLY).build())
+                        .build()));
+    }
+
+    private static AttributeDefinition attribute(String name, ScalarAttributeType type) {
+        return AttributeDefinition.builder().attributeName(name).attributeType(type).build();
+    }
+
+    private static KeySchemaElement key(String name, KeyType type) {
+        return KeySchemaElement.builder().attributeName(name).keyType(type).build();
+    }
+
+    private static GlobalSecondaryIndex index(String name, String partitionKey, String sortKey, ProjectionType projection) {
+        return GlobalSecondaryIndex.builder()
+                .indexName(name)
+                .keySchema(key(partitionKey, KeyType.HASH), key(sortKey, KeyType.RANGE))
+                .projection(Projection.builder().projectionType(projection).build())
+                .build();
+    }
+
+    // The SQLite natives are copied next to the jar (target/native-libs) at build time
+    private static void configureNativeLibraries() throws URISyntaxException {
+        if (System.getProperty("sqlite4java.library.path") != null) {
+            return;
+        }
+        Path location = Path.of(LocalDynamoDb.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        Path nativeLibs = location.getParent().resolve("native-libs");
+        if (!Files.isDirectory(nativeLibs)) {
+            throw new IllegalStateException("SQLite native libraries not found in " + nativeLibs
+                    + "; build with mvn package or set -Dsqlite4java.library.path");
+        }
+        System.setProperty("sqlite4java.library.path", nativeLibs.toString());
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
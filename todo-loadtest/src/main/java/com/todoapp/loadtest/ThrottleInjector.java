@@ -0,0 +1,48 @@
+package com.todoapp.loadtest;
+
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+
+/**
+ * Gives the local table a fixed capacity: requests beyond {@code callsPerSecond} (with one second of
+ * burst) fail with ProvisionedThroughputExceededException before they are sent, as a provisioned
+ * table would, to exercise the service's retries and adaptive rate limiting.
+ */
+final class ThrottleInjector implements ExecutionInterceptor {
+    private final double callsPerSecond;
+    private double tokens;
+    private long lastRefillNanos = System.nanoTime();
+
+    ThrottleInjector(double callsPerSecond) {
+        this.callsPerSecond = callsPerSecond;
+        this.tokens = callsPerSecond;
+    }
+
+    @Override
+    public void beforeTransmission(Context.BeforeTransmission context, ExecutionAttributes executionAttributes) {
+        if (!tryConsume()) {
+            throw ProvisionedThroughputExceededException.builder()
+                    .message("Injected throttle")
+                    .statusCode(400)
+                    .awsErrorDetails(AwsErrorDetails.builder()
+                            .errorCode("ProvisionedThroughputExceededException")
+                            .serviceName("DynamoDb")
+                            .build())
+                    .build();
+        }
+    }
+
+    private synchronized boolean tryConsume() {
+        long now = System.nanoTime();
+        tokens = Math.min(callsPerSecond, tokens + (now - lastRefillNanos) / 1e9 * callsPerSecond);
+        lastRefillNanos = now;
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+}